@@ -19,9 +19,19 @@ CREATE TABLE IF NOT EXISTS orders (
   tax_amount BIGINT NOT NULL DEFAULT 0,
   currency VARCHAR(10) NOT NULL DEFAULT 'CAD',
   created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
-  updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now()
+  updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+  version BIGINT NOT NULL DEFAULT 0
 );
 
+-- optimistic-lock version of the order aggregate (see OrderEntity), also bumped by item-level writes
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+-- Listings (GET /api/orders) page newest first by (created_at, id), optionally filtered by user or status;
+-- each filter has an index in that order so a page is a bounded index range scan, however deep it is
+CREATE INDEX IF NOT EXISTS idx_orders_user_created ON orders(user_id, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_orders_status_created ON orders(status, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_orders_created ON orders(created_at DESC, id DESC);
+
 CREATE TRIGGER orders_updated_at
   BEFORE UPDATE ON orders
   FOR EACH ROW
@@ -34,8 +44,67 @@ CREATE TABLE IF NOT EXISTS order_items (
   seat_id VARCHAR(50),
   unit_price_cents BIGINT NOT NULL,
   ticket_id UUID,
-  ticket_qr TEXT,
+  ticket_qr_id VARCHAR(64),
+  ticket_qr_png BYTEA,
   reservation_id UUID
 );
 
+-- QR codes used to be kept as Base64 data URLs in ticket_qr and came back with every order read; they are
+-- now raw PNG bytes, read only for invoices and the QR endpoint, with their SHA-256 as the item's reference
+ALTER TABLE order_items ADD COLUMN IF NOT EXISTS ticket_qr_id VARCHAR(64);
+ALTER TABLE order_items ADD COLUMN IF NOT EXISTS ticket_qr_png BYTEA;
+DO $$
+BEGIN
+  IF EXISTS (SELECT 1 FROM information_schema.columns
+             WHERE table_name = 'order_items' AND column_name = 'ticket_qr') THEN
+    UPDATE order_items
+       SET ticket_qr_png = decode(split_part(ticket_qr, ',', 2), 'base64')
+     WHERE ticket_qr IS NOT NULL AND ticket_qr_png IS NULL;
+    UPDATE order_items
+       SET ticket_qr_id = encode(sha256(ticket_qr_png), 'hex')
+     WHERE ticket_qr_png IS NOT NULL AND ticket_qr_id IS NULL;
+    ALTER TABLE order_items DROP COLUMN ticket_qr;
+  END IF;
+END $$;
+
 CREATE INDEX IF NOT EXISTS idx_order_items_order ON order_items(order_id);
+
+-- The service allocates order and item ids in blocks of 50 per sequence call (pooled optimizer, see
+-- OrderEntity/CartItemEntity), which lets it batch inserts; the increments must match allocationSize
+ALTER SEQUENCE orders_id_seq INCREMENT BY 50;
+ALTER SEQUENCE order_items_id_seq INCREMENT BY 50;
+
+-- total_amount/tax_amount are maintained by the service on every cart edit (see Order/TaxRule); orders
+-- written before that carry 0 and are backfilled here. The backfill assumes the default 14% rate
+-- (app.orders.tax.rate=0.14, cents truncated): this script cannot read the service's settings, so a
+-- deployment that configures another rate must change 14 below before the first start. Only rows
+-- still at 0 are touched, so rerunning the script never rewrites totals the service has computed.
+UPDATE orders o
+   SET tax_amount = s.subtotal * 14 / 100,
+       total_amount = s.subtotal + s.subtotal * 14 / 100
+  FROM (SELECT order_id, SUM(unit_price_cents) AS subtotal FROM order_items GROUP BY order_id) s
+ WHERE s.order_id = o.id AND o.total_amount = 0 AND s.subtotal > 0;
+
+-- Transactional outbox: events are written with the state change and published by the relay
+CREATE TABLE IF NOT EXISTS outbox_events (
+  id BIGSERIAL PRIMARY KEY,
+  exchange VARCHAR(255) NOT NULL,
+  routing_key VARCHAR(255) NOT NULL,
+  type_id VARCHAR(255),
+  payload TEXT NOT NULL,
+  created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now()
+);
+
+-- W3C traceparent of the transaction that wrote the event; the relay continues that trace
+ALTER TABLE outbox_events ADD COLUMN IF NOT EXISTS traceparent VARCHAR(64);
+
+-- Payments requested per order and their final outcome; no foreign key because a failed payment deletes
+-- the order while the result endpoint must still be able to report it
+CREATE TABLE IF NOT EXISTS order_payments (
+  correlation_id VARCHAR(64) PRIMARY KEY,
+  order_id BIGINT NOT NULL,
+  status VARCHAR(16),
+  reason TEXT,
+  created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+  updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now()
+);
@@ -28,7 +28,22 @@ CREATE TABLE IF NOT EXISTS payment_sessions (
   order_id bigint,
   amount_cents bigint NOT NULL,
   status varchar(32) NOT NULL DEFAULT 'PENDING',
+  attempts int NOT NULL DEFAULT 0,
   created_at timestamptz NOT NULL DEFAULT now()
 );
 
+-- attempt counter bumped together with each transactions insert (replaces count(*) per card submission)
+ALTER TABLE payment_sessions ADD COLUMN IF NOT EXISTS attempts int NOT NULL DEFAULT 0;
+
 CREATE INDEX IF NOT EXISTS idx_payment_sessions_order ON payment_sessions(order_id);
+
+-- Transactional outbox: final payment results are written with the session update and published by the relay
+CREATE TABLE IF NOT EXISTS payment_outbox (
+  id BIGSERIAL PRIMARY KEY,
+  exchange VARCHAR(255) NOT NULL,
+  routing_key VARCHAR(255) NOT NULL,
+  type_id VARCHAR(255),
+  payload TEXT NOT NULL,
+  traceparent VARCHAR(64),
+  created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now()
+);
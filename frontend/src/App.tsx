@@ -349,8 +349,8 @@ const App: React.FC = () => {
       setModalReservationId(reservationId ?? null);
       setShowOrderModal(true);
       console.log('Order created:', orderRes.data);
-      const totalCents = items.reduce((sum, it) => sum + (it.unitPriceCents * (it as any).quantity || it.unitPriceCents), 0);
-      setOrderTotal(totalCents / 100);
+      // total including tax, as computed and stored by the order service
+      setOrderTotal(orderRes.data.totalAmountCents / 100);
       
       // Refresh map to show reserved
       loadEvent(currentEvent.id);
@@ -363,6 +363,19 @@ const App: React.FC = () => {
     }
   };
 
+  // Resolves with the pushed payment result, or null if none arrived within timeoutMs
+  const waitForPaymentResult = (orderId: number | string, corrId: string, timeoutMs: number) =>
+    new Promise<any>(resolve => {
+      const source = new EventSource(`${API_BASE}/api/orders/${orderId}/payments/${corrId}/result`);
+      const done = (result: any) => {
+        clearTimeout(timer);
+        source.close();
+        resolve(result);
+      };
+      const timer = setTimeout(() => done(null), timeoutMs);
+      source.addEventListener('payment-result', (e: MessageEvent) => done(JSON.parse(e.data)));
+    });
+
   const finalizeOrder = async () => {
     if (!currentOrderId) return;
     setError(null); setSuccess(null);
@@ -411,6 +424,12 @@ const App: React.FC = () => {
       const attemptsLeft = body.attemptsRemaining ?? 0;
       const isFinal = !!body.isFinal;
 
+      // 4) On a final outcome, wait for orderservice to push it once the order reflects it (instead of polling),
+      //    so the seat map reloaded below already shows the confirmed/released seats
+      if (status === 'SUCCESS' || (status === 'FAILED' && isFinal)) {
+        await waitForPaymentResult(currentOrderId, correlationId, 10000);
+      }
+
       if (status === 'SUCCESS') {
         setSuccess('Payment successful!');
         setCurrentOrderId(null);
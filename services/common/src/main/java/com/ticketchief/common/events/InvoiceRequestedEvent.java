@@ -0,0 +1,10 @@
+package com.ticketchief.common.events;
+
+public record InvoiceRequestedEvent(
+        String type,
+        Long orderId
+) {
+    public InvoiceRequestedEvent(Long orderId) {
+        this("invoice.requested", orderId);
+    }
+}
@@ -0,0 +1,166 @@
+package com.ticketchief.common.jdbc;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wraps a connection pool so every statement executed through it is timed, and statements slower than
+ * {@code slowThreshold} are logged at WARN with their SQL. Only the execute call is measured; reading
+ * the rows of a result set afterwards is not.
+ * <p>
+ * Meters (tag {@code pool}): {@code jdbc.statements} execution time and {@code jdbc.statements.slow}
+ * statements over the threshold. Pool gauges and connection acquire/usage timers are the pool's own
+ * ({@code hikaricp.connections.*}).
+ * <p>
+ * {@link #unwrap(Class)} reaches the wrapped pool, so pool metadata and metrics binders still find it.
+ */
+public class InstrumentedDataSource implements DataSource {
+
+    private static final Logger log = LoggerFactory.getLogger(InstrumentedDataSource.class);
+    private static final int MAX_LOGGED_SQL_LENGTH = 2000;
+
+    private final DataSource target;
+    private final String pool;
+    private final long slowThresholdNanos;
+    private final Timer statements;
+    private final Counter slowStatements;
+
+    public InstrumentedDataSource(DataSource target, MeterRegistry registry, String pool, Duration slowThreshold) {
+        this.target = target;
+        this.pool = pool;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.statements = Timer.builder("jdbc.statements").tag("pool", pool).register(registry);
+        this.slowStatements = Counter.builder("jdbc.statements.slow").tag("pool", pool).register(registry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return instrument(target.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return instrument(target.getConnection(username, password));
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return target.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        target.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        target.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return target.getLoginTimeout();
+    }
+
+    @Override
+    public java.util.logging.Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return target.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return iface.isInstance(this) ? iface.cast(this) : target.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || target.isWrapperFor(iface);
+    }
+
+    private Connection instrument(Connection connection) {
+        return proxy(Connection.class, (proxy, method, args) -> {
+            Object result = invoke(connection, method, args);
+            return switch (method.getName()) {
+                case "createStatement" -> statement(Statement.class, (Statement) result, null);
+                case "prepareStatement" -> statement(PreparedStatement.class, (Statement) result, (String) args[0]);
+                case "prepareCall" -> statement(CallableStatement.class, (Statement) result, (String) args[0]);
+                default -> result;
+            };
+        });
+    }
+
+    // Prepared statements carry their SQL from the prepare call, plain ones pass it to execute/addBatch
+    private <S extends Statement> S statement(Class<S> type, Statement statement, String preparedSql) {
+        String[] batchSql = new String[1];
+        return proxy(type, (proxy, method, args) -> {
+            String name = method.getName();
+            if (name.equals("addBatch") && args != null && args.length > 0) {
+                batchSql[0] = (String) args[0];
+            }
+            if (!name.startsWith("execute")) {
+                return invoke(statement, method, args);
+            }
+            String sql = preparedSql != null ? preparedSql
+                    : args != null && args.length > 0 && args[0] instanceof String s ? s : batchSql[0];
+            long start = System.nanoTime();
+            try {
+                return invoke(statement, method, args);
+            } finally {
+                record(sql, name, System.nanoTime() - start);
+            }
+        });
+    }
+
+    private void record(String sql, String method, long elapsedNanos) {
+        statements.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        if (elapsedNanos >= slowThresholdNanos) {
+            slowStatements.increment();
+            log.warn("Slow statement on {} ({}, {} ms): {}", pool, method,
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos), abbreviate(sql));
+        }
+    }
+
+    private static String abbreviate(String sql) {
+        if (sql == null) {
+            return "<unknown>";
+        }
+        return sql.length() <= MAX_LOGGED_SQL_LENGTH ? sql : sql.substring(0, MAX_LOGGED_SQL_LENGTH) + "...";
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Proxies compare by identity, like the pool's own connection and statement wrappers
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        InvocationHandler identity = (proxy, method, args) -> switch (method.getName()) {
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            default -> handler.invoke(proxy, method, args);
+        };
+        return type.cast(Proxy.newProxyInstance(InstrumentedDataSource.class.getClassLoader(), new Class<?>[]{type}, identity));
+    }
+}
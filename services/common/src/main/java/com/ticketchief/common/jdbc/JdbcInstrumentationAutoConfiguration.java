@@ -0,0 +1,41 @@
+package com.ticketchief.common.jdbc;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * Times every statement on a service's Hikari pool and logs slow ones (see {@link InstrumentedDataSource});
+ * Spring Boot binds the pool's own {@code hikaricp.connections.*} meters through the wrapper. The threshold
+ * is {@code app.datasource.slow-statement-threshold-ms}.
+ */
+@AutoConfiguration
+@ConditionalOnClass({HikariDataSource.class, MeterRegistry.class})
+public class JdbcInstrumentationAutoConfiguration {
+
+    @Bean
+    public static BeanPostProcessor instrumentDataSource(ObjectProvider<MeterRegistry> meterRegistry,
+            Environment environment) {
+        // read from the Environment: a static post-processor is created before placeholders are resolvable
+        long slowStatementThresholdMs = environment.getProperty("app.datasource.slow-statement-threshold-ms",
+                Long.class, 200L);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari) {
+                    String pool = hikari.getPoolName() != null ? hikari.getPoolName() : beanName;
+                    return new InstrumentedDataSource(hikari, meterRegistry.getObject(), pool,
+                            Duration.ofMillis(slowStatementThresholdMs));
+                }
+                return bean;
+            }
+        };
+    }
+}
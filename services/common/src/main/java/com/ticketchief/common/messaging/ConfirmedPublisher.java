@@ -0,0 +1,118 @@
+package com.ticketchief.common.messaging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes with correlated publisher confirms without waiting per message: sends return immediately
+ * and the returned future completes when the broker acks (or fails on a nack or a closed channel), so
+ * many messages are in flight on a channel at once. At most {@code maxOutstanding} messages may be
+ * unconfirmed; beyond that senders block for up to {@code acquireTimeoutMs} (back-pressure instead of
+ * unbounded memory).
+ * <p>
+ * Requires a connection factory with {@code publisher-confirm-type=correlated}.
+ * <p>
+ * Meters (tag {@code publisher}): {@code rabbit.publisher.send} time spent handing a message to the
+ * channel, {@code rabbit.publisher.confirm} send-to-confirm latency, {@code rabbit.publisher.outstanding}
+ * unconfirmed messages and {@code rabbit.publisher.nacks} rejected publishes.
+ */
+public class ConfirmedPublisher {
+
+    /** A message with its destination, for {@link #publishAll(List)}. */
+    public record Outgoing(String exchange, String routingKey, Message message) {
+    }
+
+    private final RabbitTemplate rabbitTemplate;
+    private final int maxOutstanding;
+    private final long acquireTimeoutMs;
+    private final Semaphore outstanding;
+    private final Timer sendTimer;
+    private final Timer confirmTimer;
+    private final Counter nacks;
+
+    public ConfirmedPublisher(RabbitTemplate rabbitTemplate, MeterRegistry registry, String name,
+                              int maxOutstanding, long acquireTimeoutMs) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.maxOutstanding = maxOutstanding;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.outstanding = new Semaphore(maxOutstanding);
+        this.sendTimer = Timer.builder("rabbit.publisher.send").tag("publisher", name).register(registry);
+        this.confirmTimer = Timer.builder("rabbit.publisher.confirm").tag("publisher", name).register(registry);
+        this.nacks = Counter.builder("rabbit.publisher.nacks").tag("publisher", name).register(registry);
+        Gauge.builder("rabbit.publisher.outstanding", this, ConfirmedPublisher::outstandingConfirms)
+                .tag("publisher", name).register(registry);
+    }
+
+    /**
+     * Sends a batch back to back on a single channel; the future completes once every message of the
+     * batch is confirmed and fails if any of them is not.
+     */
+    public CompletableFuture<Void> publishAll(List<Outgoing> batch) {
+        List<CompletableFuture<Void>> confirms = new ArrayList<>(batch.size());
+        try {
+            rabbitTemplate.invoke(operations -> {
+                for (Outgoing outgoing : batch) {
+                    acquire();
+                    CorrelationData correlation = new CorrelationData();
+                    long start = System.nanoTime();
+                    try {
+                        operations.send(outgoing.exchange(), outgoing.routingKey(), outgoing.message(), correlation);
+                    } catch (RuntimeException e) {
+                        outstanding.release();
+                        throw e;
+                    }
+                    sendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    confirms.add(track(correlation, start));
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            // messages sent before the failure still complete through their own confirms
+            return CompletableFuture.failedFuture(e);
+        }
+        return CompletableFuture.allOf(confirms.toArray(CompletableFuture[]::new));
+    }
+
+    public int outstandingConfirms() {
+        return maxOutstanding - outstanding.availablePermits();
+    }
+
+    private void acquire() {
+        try {
+            if (!outstanding.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new AmqpException("Timed out waiting for publisher confirms: " + maxOutstanding + " outstanding");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AmqpException("Interrupted while waiting for publisher confirms", e);
+        }
+    }
+
+    private CompletableFuture<Void> track(CorrelationData correlation, long start) {
+        return correlation.getFuture().handle((confirm, failure) -> {
+            outstanding.release();
+            confirmTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (failure != null) {
+                throw new CompletionException(failure);
+            }
+            if (!confirm.isAck()) {
+                nacks.increment();
+                throw new CompletionException(new AmqpException("Publish not confirmed: " + confirm.getReason()));
+            }
+            return null;
+        });
+    }
+}
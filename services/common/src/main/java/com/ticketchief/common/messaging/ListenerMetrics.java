@@ -0,0 +1,140 @@
+package com.ticketchief.common.messaging;
+
+import com.ticketchief.common.metrics.PipelineMetrics;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Queue lag meters for listener containers, installed by {@link TunedListenerContainerFactory}
+ * (tag {@code listener}):
+ * <ul>
+ * <li>{@code rabbit.listener.lag} time from publish to receive, from the message timestamp; messages
+ * published without one (see {@link #stampPublishTime()}) are not counted</li>
+ * <li>{@code rabbit.listener.lag.last} lag of the most recently received message, in seconds</li>
+ * <li>{@code rabbit.listener.queue.depth} messages ready in the listener's queues, as last read from the
+ * broker; refreshed every {@code depthRefreshInterval} on a background thread so scrapes never wait on a
+ * broker round trip per queue. NaN until the first read and while the broker cannot be asked.</li>
+ * </ul>
+ */
+public class ListenerMetrics implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ListenerMetrics.class);
+
+    private final MeterRegistry registry;
+    private final AmqpAdmin amqpAdmin;
+    private final Duration depthRefreshInterval;
+    private final List<QueueDepth> queueDepths = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService depthRefresher;
+
+    public ListenerMetrics(MeterRegistry registry, AmqpAdmin amqpAdmin, Duration depthRefreshInterval) {
+        this.registry = registry;
+        this.amqpAdmin = amqpAdmin;
+        this.depthRefreshInterval = depthRefreshInterval;
+    }
+
+    /**
+     * Publish-side half: sets the timestamp lag is measured from, unless the sender already set one.
+     * Install it as a before-publish post processor on every RabbitTemplate.
+     */
+    public static MessagePostProcessor stampPublishTime() {
+        return message -> {
+            if (message.getMessageProperties().getTimestamp() == null) {
+                message.getMessageProperties().setTimestamp(new Date());
+            }
+            return message;
+        };
+    }
+
+    void bind(String listenerId, SimpleMessageListenerContainer container) {
+        String listener = listenerId != null ? listenerId : "unnamed";
+        Timer lag = Timer.builder(PipelineMetrics.LISTENER_LAG).tag("listener", listener).register(registry);
+        AtomicLong lastLagMs = new AtomicLong();
+        Gauge.builder(PipelineMetrics.LISTENER_LAG_LAST, lastLagMs, last -> last.get() / 1000.0)
+                .tag("listener", listener).baseUnit("seconds").register(registry);
+        QueueDepth depth = new QueueDepth(container);
+        queueDepths.add(depth);
+        Gauge.builder(PipelineMetrics.LISTENER_QUEUE_DEPTH, depth, d -> d.value)
+                .tag("listener", listener).register(registry);
+        startDepthRefresher();
+
+        container.addAfterReceivePostProcessors(message -> {
+            Date published = message.getMessageProperties().getTimestamp();
+            if (published != null) {
+                // timestamps have millisecond precision and clocks of different hosts may drift apart
+                long lagMs = Math.max(0, System.currentTimeMillis() - published.getTime());
+                lag.record(lagMs, TimeUnit.MILLISECONDS);
+                lastLagMs.set(lagMs);
+            }
+            return message;
+        });
+    }
+
+    /** Reads the depth of every bound listener's queues from the broker; runs on the refresher thread. */
+    public void refreshQueueDepths() {
+        for (QueueDepth depth : queueDepths) {
+            try {
+                depth.value = queueDepth(depth.container);
+            } catch (RuntimeException e) {
+                log.debug("Could not read queue depth of {}: {}", depth.container.getQueueNames(), e.toString());
+                depth.value = Double.NaN;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (depthRefresher != null) {
+            depthRefresher.shutdownNow();
+        }
+    }
+
+    private synchronized void startDepthRefresher() {
+        if (depthRefresher != null) {
+            return;
+        }
+        depthRefresher = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "listener-queue-depth");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMs = depthRefreshInterval.toMillis();
+        depthRefresher.scheduleWithFixedDelay(this::refreshQueueDepths, 0, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    private double queueDepth(SimpleMessageListenerContainer container) {
+        long depth = 0;
+        for (String queue : container.getQueueNames()) {
+            QueueInformation info = amqpAdmin.getQueueInfo(queue);
+            if (info == null) {
+                return Double.NaN;
+            }
+            depth += info.getMessageCount();
+        }
+        return depth;
+    }
+
+    private static final class QueueDepth {
+        private final SimpleMessageListenerContainer container;
+        private volatile double value = Double.NaN;
+
+        private QueueDepth(SimpleMessageListenerContainer container) {
+            this.container = container;
+        }
+    }
+}
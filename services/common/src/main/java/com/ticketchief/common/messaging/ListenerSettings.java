@@ -0,0 +1,80 @@
+package com.ticketchief.common.messaging;
+
+/**
+ * Container knobs for one {@code @RabbitListener}. Every field is optional: an unset value falls
+ * back to {@link ListenerTuning#getDefaults()} and then to whatever the container factory was
+ * configured with ({@code spring.rabbitmq.listener.simple.*}).
+ * <p>
+ * {@code batchSize} and {@code batchReceiveTimeoutMs} only apply to batch listeners
+ * ({@code @RabbitListener(batch = "true")} with a {@code List} parameter); a partial batch is
+ * delivered once {@code batchReceiveTimeoutMs} has passed since its first message.
+ */
+public class ListenerSettings {
+
+    private Integer concurrency;
+    private Integer maxConcurrency;
+    private Integer prefetch;
+    private Integer batchSize;
+    private Long batchReceiveTimeoutMs;
+    private Boolean virtualThreads;
+
+    /** Values set here win; unset ones are taken from {@code fallback}. */
+    public ListenerSettings orElse(ListenerSettings fallback) {
+        ListenerSettings merged = new ListenerSettings();
+        merged.concurrency = concurrency != null ? concurrency : fallback.concurrency;
+        merged.maxConcurrency = maxConcurrency != null ? maxConcurrency : fallback.maxConcurrency;
+        merged.prefetch = prefetch != null ? prefetch : fallback.prefetch;
+        merged.batchSize = batchSize != null ? batchSize : fallback.batchSize;
+        merged.batchReceiveTimeoutMs = batchReceiveTimeoutMs != null ? batchReceiveTimeoutMs : fallback.batchReceiveTimeoutMs;
+        merged.virtualThreads = virtualThreads != null ? virtualThreads : fallback.virtualThreads;
+        return merged;
+    }
+
+    public Integer getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(Integer concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public Integer getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public void setMaxConcurrency(Integer maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public Integer getPrefetch() {
+        return prefetch;
+    }
+
+    public void setPrefetch(Integer prefetch) {
+        this.prefetch = prefetch;
+    }
+
+    public Integer getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(Integer batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Long getBatchReceiveTimeoutMs() {
+        return batchReceiveTimeoutMs;
+    }
+
+    public void setBatchReceiveTimeoutMs(Long batchReceiveTimeoutMs) {
+        this.batchReceiveTimeoutMs = batchReceiveTimeoutMs;
+    }
+
+    public Boolean getVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public void setVirtualThreads(Boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+}
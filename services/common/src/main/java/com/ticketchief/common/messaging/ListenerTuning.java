@@ -0,0 +1,42 @@
+package com.ticketchief.common.messaging;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-listener container settings, keyed by {@code @RabbitListener(id = ...)}. Services bind it from
+ * properties, e.g.
+ * <pre>
+ * app.rabbit.listeners.defaults.prefetch=50
+ * app.rabbit.listeners.overrides.ticket-created.batch-size=50
+ * app.rabbit.listeners.overrides.invoice-requested.concurrency=2
+ * </pre>
+ * and hand it to {@link TunedListenerContainerFactory}.
+ */
+public class ListenerTuning {
+
+    private ListenerSettings defaults = new ListenerSettings();
+    private Map<String, ListenerSettings> overrides = new HashMap<>();
+
+    /** Effective settings for a listener id; listeners without an id only get the defaults. */
+    public ListenerSettings settingsFor(String listenerId) {
+        ListenerSettings own = listenerId == null ? null : overrides.get(listenerId);
+        return own == null ? new ListenerSettings().orElse(defaults) : own.orElse(defaults);
+    }
+
+    public ListenerSettings getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(ListenerSettings defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<String, ListenerSettings> getOverrides() {
+        return overrides;
+    }
+
+    public void setOverrides(Map<String, ListenerSettings> overrides) {
+        this.overrides = overrides;
+    }
+}
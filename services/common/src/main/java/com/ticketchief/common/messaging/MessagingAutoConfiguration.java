@@ -0,0 +1,58 @@
+package com.ticketchief.common.messaging;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.amqp.RabbitAutoConfiguration;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+
+import java.time.Duration;
+
+/**
+ * Default listener container factory for every service: each {@code @RabbitListener} gets Boot's
+ * {@code spring.rabbitmq.listener.simple.*} configuration plus its own settings from
+ * {@code app.rabbit.listeners.*} keyed by listener id, and reports its queue lag through
+ * {@link ListenerMetrics} when the service has a meter registry. Runs before Boot's Rabbit
+ * auto-configuration, which then backs off its own {@code rabbitListenerContainerFactory}.
+ */
+@AutoConfiguration(before = RabbitAutoConfiguration.class,
+        afterName = "org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration")
+@ConditionalOnClass(RabbitTemplate.class)
+public class MessagingAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConfigurationProperties("app.rabbit.listeners")
+    public ListenerTuning listenerTuning() {
+        return new ListenerTuning();
+    }
+
+    // queue depth is read from the broker on a timer rather than on every scrape
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnBean(MeterRegistry.class)
+    public ListenerMetrics listenerMetrics(MeterRegistry meterRegistry, AmqpAdmin amqpAdmin,
+            @Value("${app.rabbit.queue-depth-refresh-ms:15000}") long queueDepthRefreshMs) {
+        return new ListenerMetrics(meterRegistry, amqpAdmin, Duration.ofMillis(queueDepthRefreshMs));
+    }
+
+    @Bean(name = "rabbitListenerContainerFactory")
+    @ConditionalOnMissingBean(name = "rabbitListenerContainerFactory")
+    public TunedListenerContainerFactory rabbitListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory,
+            ListenerTuning listenerTuning, ObjectProvider<ListenerMetrics> listenerMetrics) {
+        TunedListenerContainerFactory factory = new TunedListenerContainerFactory(listenerTuning);
+        configurer.configure(factory, connectionFactory);
+        listenerMetrics.ifAvailable(factory::setListenerMetrics);
+        return factory;
+    }
+}
@@ -0,0 +1,67 @@
+package com.ticketchief.common.messaging;
+
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpoint;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+/**
+ * Listener container factory that applies {@link ListenerTuning} per listener id on top of the
+ * factory-wide configuration, so every {@code @RabbitListener} in a service can use the default
+ * factory and still get its own concurrency, prefetch, consumer batching and executor.
+ * <p>
+ * Batching is only switched on for batch endpoints: a {@code batchSize} on a single-message
+ * listener is ignored rather than failing container startup.
+ * <p>
+ * With {@link #setListenerMetrics(ListenerMetrics)} every container also reports its queue lag.
+ */
+public class TunedListenerContainerFactory extends SimpleRabbitListenerContainerFactory {
+
+    private final ListenerTuning tuning;
+    private ListenerMetrics listenerMetrics;
+
+    public TunedListenerContainerFactory(ListenerTuning tuning) {
+        this.tuning = tuning;
+    }
+
+    public void setListenerMetrics(ListenerMetrics listenerMetrics) {
+        this.listenerMetrics = listenerMetrics;
+    }
+
+    @Override
+    protected void initializeContainer(SimpleMessageListenerContainer container, RabbitListenerEndpoint endpoint) {
+        super.initializeContainer(container, endpoint);
+        apply(tuning.settingsFor(endpoint.getId()), container, endpoint);
+        if (listenerMetrics != null) {
+            listenerMetrics.bind(endpoint.getId(), container);
+        }
+    }
+
+    static void apply(ListenerSettings settings, SimpleMessageListenerContainer container, RabbitListenerEndpoint endpoint) {
+        if (settings.getConcurrency() != null || settings.getMaxConcurrency() != null) {
+            int concurrency = settings.getConcurrency() != null ? settings.getConcurrency() : 1;
+            int max = settings.getMaxConcurrency() != null ? Math.max(settings.getMaxConcurrency(), concurrency) : concurrency;
+            // max first: setConcurrentConsumers rejects values above the current maximum
+            container.setMaxConcurrentConsumers(max);
+            container.setConcurrentConsumers(concurrency);
+        }
+        if (settings.getPrefetch() != null) {
+            container.setPrefetchCount(settings.getPrefetch());
+        }
+        if (Boolean.TRUE.equals(endpoint.getBatchListener()) && settings.getBatchSize() != null) {
+            container.setConsumerBatchEnabled(true);
+            container.setDeBatchingEnabled(true);
+            container.setBatchSize(settings.getBatchSize());
+            if (settings.getBatchReceiveTimeoutMs() != null) {
+                container.setBatchReceiveTimeout(settings.getBatchReceiveTimeoutMs());
+            }
+        }
+        if (Boolean.TRUE.equals(settings.getVirtualThreads())) {
+            // Consumers block on their delivery queue between messages; virtual threads make that free
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(
+                    (endpoint.getId() != null ? endpoint.getId() : "rabbit-listener") + "-");
+            executor.setVirtualThreads(true);
+            container.setTaskExecutor(executor);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.ticketchief.common.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Meter names shared by every service on the order → payment → ticket → invoice → email path, and
+ * timing of its stages.
+ * <p>
+ * {@code pipeline.stage} (tags {@code stage}, {@code outcome} success|failure) times each stage where
+ * the owning service receives it: a REST call or a listener delivery. Listener containers built by
+ * {@code TunedListenerContainerFactory} add {@code rabbit.listener.lag} (publish-to-receive time,
+ * tag {@code listener}), {@code rabbit.listener.lag.last} and {@code rabbit.listener.queue.depth}.
+ */
+public class PipelineMetrics {
+
+    public static final String STAGE = "pipeline.stage";
+    public static final String LISTENER_LAG = "rabbit.listener.lag";
+    public static final String LISTENER_LAG_LAST = "rabbit.listener.lag.last";
+    public static final String LISTENER_QUEUE_DEPTH = "rabbit.listener.queue.depth";
+
+    /** Stage tag values, in pipeline order. */
+    public static final String ORDER_FINALIZE = "order.finalize";
+    public static final String PAYMENT_ATTEMPT = "payment.attempt";
+    public static final String ORDER_PAYMENT_PROCESSED = "order.payment-processed";
+    public static final String ORDER_TICKETS_CREATED = "order.tickets-created";
+    public static final String INVOICE_GENERATE = "invoice.generate";
+    public static final String EMAIL_SEND_INVOICE = "email.send-invoice";
+
+    private final MeterRegistry registry;
+
+    public PipelineMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void time(String stage, Runnable work) {
+        time(stage, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public <T> T time(String stage, Supplier<T> work) {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            T result = work.get();
+            success = true;
+            return result;
+        } finally {
+            record(stage, start, success);
+        }
+    }
+
+    /** Times a stage until its future completes. */
+    public <T> CompletableFuture<T> timeAsync(String stage, Supplier<CompletableFuture<T>> work) {
+        long start = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            future = work.get();
+        } catch (RuntimeException e) {
+            record(stage, start, false);
+            throw e;
+        }
+        return future.whenComplete((result, failure) -> record(stage, start, failure == null));
+    }
+
+    private void record(String stage, long start, boolean success) {
+        Timer.builder(STAGE)
+                .tag("stage", stage)
+                .tag("outcome", success ? "success" : "failure")
+                .register(registry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,76 @@
+package com.ticketchief.common.tracing;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.TraceContext;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Carries trace context across hops the listener and template observations do not cover: messages that
+ * are stored before they are sent (the outbox) and messages consumed in batches. Context travels as
+ * W3C {@code traceparent}/{@code tracestate} message headers, the same ones the observed RabbitTemplates
+ * and listener containers use, so every service (and the non-Java ones that copy the headers) continues
+ * one trace per order.
+ */
+public class MessageTracing {
+
+    public static final String TRACEPARENT = "traceparent";
+
+    private final Tracer tracer;
+    private final Propagator propagator;
+
+    public MessageTracing(Tracer tracer, Propagator propagator) {
+        this.tracer = tracer;
+        this.propagator = propagator;
+    }
+
+    /** For callers without tracing: no context is captured and spans are no-ops. */
+    public static MessageTracing noop() {
+        return new MessageTracing(Tracer.NOOP, Propagator.NOOP);
+    }
+
+    /** The current span's {@code traceparent}, or null outside a trace. */
+    public String currentTraceparent() {
+        TraceContext context = tracer.currentTraceContext().context();
+        if (context == null) {
+            return null;
+        }
+        Map<String, String> headers = new HashMap<>();
+        propagator.inject(context, headers, Map::put);
+        return headers.get(TRACEPARENT);
+    }
+
+    /**
+     * Starts a producer span for a message whose context was captured earlier (null starts a new trace),
+     * backdated to when the message was created so the span covers its wait before sending.
+     */
+    public Span startProducer(String name, String traceparent, Instant createdAt) {
+        Span.Builder builder = traceparent == null
+                ? tracer.spanBuilder()
+                : propagator.extract(Map.of(TRACEPARENT, traceparent), Map::get);
+        if (createdAt != null) {
+            builder.startTimestamp(TimeUnit.MILLISECONDS.toMicros(createdAt.toEpochMilli()), TimeUnit.MICROSECONDS);
+        }
+        return builder.name(name).kind(Span.Kind.PRODUCER).start();
+    }
+
+    /** Starts a consumer span continuing the trace found in received message headers. */
+    public Span startConsumer(String name, Map<String, ?> headers) {
+        return propagator.extract(headers, (carrier, key) -> carrier.get(key) instanceof Object value ? value.toString() : null)
+                .name(name).kind(Span.Kind.CONSUMER).start();
+    }
+
+    /** Writes {@code span}'s context into outgoing message headers. */
+    public void inject(Span span, Map<String, Object> headers) {
+        propagator.inject(span.context(), headers, Map::put);
+    }
+
+    public Tracer.SpanInScope withSpan(Span span) {
+        return tracer.withSpan(span);
+    }
+}
@@ -0,0 +1,62 @@
+package com.ticketchief.common.tracing;
+
+import io.micrometer.observation.ObservationPredicate;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Tracing pieces shared by every service. Traces go to OTLP ({@code management.otlp.tracing.*}, defaults
+ * in {@link TracingDefaults}) and, when {@code app.tracing.file.enabled} is set, to the service's
+ * JSON-lines file at {@code app.tracing.file.path}; context crosses services in W3C traceparent headers
+ * on HTTP and AMQP.
+ */
+@AutoConfiguration(beforeName = "org.springframework.boot.actuate.autoconfigure.tracing.OpenTelemetryTracingAutoConfiguration")
+@ConditionalOnClass(Tracer.class)
+public class TracingAutoConfiguration {
+
+    @Bean
+    @ConditionalOnClass(SpanExporter.class)
+    @ConditionalOnProperty(name = "app.tracing.file.enabled", havingValue = "true")
+    public SpanExporter jsonLinesSpanExporter(@Value("${app.tracing.file.path}") Path file) throws IOException {
+        return new JsonLinesSpanExporter(file);
+    }
+
+    // Outbox and batch-listener hops; no-op where no tracer is configured (slice tests)
+    @Bean
+    @ConditionalOnMissingBean
+    public MessageTracing messageTracing(ObjectProvider<Tracer> tracer, ObjectProvider<Propagator> propagator) {
+        return new MessageTracing(tracer.getIfAvailable(() -> Tracer.NOOP), propagator.getIfAvailable(() -> Propagator.NOOP));
+    }
+
+    // Scheduler polls would otherwise each start a trace of their own
+    @Bean
+    public ObservationPredicate skipScheduledTaskObservations() {
+        return (name, context) -> !name.equals("tasks.scheduled.execution");
+    }
+
+    // Same for metric scrapes and health checks
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = {"org.springframework.http.server.observation.ServerRequestObservationContext",
+            "jakarta.servlet.http.HttpServletRequest"})
+    static class ServerObservations {
+
+        @Bean
+        public ObservationPredicate skipActuatorObservations() {
+            return (name, context) -> !(context instanceof ServerRequestObservationContext request
+                    && request.getCarrier().getRequestURI().startsWith("/actuator"));
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.ticketchief.common.tracing;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.ResourcePropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Adds the tracing settings shared by all services ({@code tracing-defaults.properties} next to this
+ * class) as the lowest-precedence property source, so every service exports and propagates traces the
+ * same way unless its own configuration says otherwise.
+ */
+public class TracingDefaults implements EnvironmentPostProcessor {
+
+    static final String PROPERTY_SOURCE_NAME = "ticketchiefTracingDefaults";
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        try {
+            environment.getPropertySources().addLast(new ResourcePropertySource(PROPERTY_SOURCE_NAME,
+                    new ClassPathResource("tracing-defaults.properties", TracingDefaults.class)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.ticketchief.common.messaging;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Confirm tracking and back-pressure of ConfirmedPublisher against a template whose confirms the test
+ * completes by hand.
+ */
+class ConfirmedPublisherTest {
+
+    private static final int MAX_OUTSTANDING = 2;
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final RabbitTemplate template = mock();
+    private final List<CorrelationData> sent = new ArrayList<>();
+    private final ConfirmedPublisher publisher = new ConfirmedPublisher(template, registry, "test", MAX_OUTSTANDING, 50);
+
+    @BeforeEach
+    void setUp() {
+        // invoke() runs the callback on the template itself; every send is remembered so its confirm can be completed
+        when(template.invoke(any())).thenAnswer(inv -> inv.<RabbitTemplate.OperationsCallback<?>>getArgument(0).doInRabbit(template));
+        doAnswer(inv -> sent.add(inv.getArgument(3)))
+                .when(template).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+    }
+
+    @Test
+    void batchCompletesOnceEveryMessageIsAcked() {
+        CompletableFuture<Void> batch = publisher.publishAll(batch(2));
+
+        assertThat(publisher.outstandingConfirms()).isEqualTo(2);
+        confirm(0, true);
+        assertThat(batch).isNotDone();
+        confirm(1, true);
+
+        assertThat(batch).isCompleted();
+        assertThat(publisher.outstandingConfirms()).isZero();
+        assertThat(registry.get("rabbit.publisher.confirm").tag("publisher", "test").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void nackFailsTheBatchAndReleasesItsPermit() {
+        CompletableFuture<Void> batch = publisher.publishAll(batch(2));
+
+        confirm(0, true);
+        confirm(1, false);
+
+        assertThatThrownBy(batch::join).isInstanceOf(CompletionException.class).hasCauseInstanceOf(AmqpException.class)
+                .hasMessageContaining("not confirmed");
+        assertThat(publisher.outstandingConfirms()).isZero();
+        assertThat(registry.get("rabbit.publisher.nacks").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void closedChannelFailsTheBatchAndReleasesItsPermit() {
+        CompletableFuture<Void> batch = publisher.publishAll(batch(1));
+
+        sent.get(0).getFuture().completeExceptionally(new AmqpException("channel closed"));
+
+        assertThatThrownBy(batch::join).hasRootCauseMessage("channel closed");
+        assertThat(publisher.outstandingConfirms()).isZero();
+    }
+
+    @Test
+    void sendersWaitForConfirmsBeyondTheLimitAndTimeOut() {
+        CompletableFuture<Void> batch = publisher.publishAll(batch(MAX_OUTSTANDING + 1));
+
+        // the first two went out and keep their permits until the broker answers
+        assertThatThrownBy(batch::join).hasCauseInstanceOf(AmqpException.class).hasMessageContaining("Timed out");
+        assertThat(sent).hasSize(MAX_OUTSTANDING);
+        assertThat(publisher.outstandingConfirms()).isEqualTo(MAX_OUTSTANDING);
+
+        confirm(0, true);
+        confirm(1, true);
+
+        assertThat(publisher.outstandingConfirms()).isZero();
+        assertThat(publisher.publishAll(batch(1))).isNotDone();
+    }
+
+    @Test
+    void failedSendReleasesItsPermit() {
+        doAnswer(inv -> {
+            throw new AmqpException("connection refused");
+        }).when(template).send(eq("orders"), eq("second"), any(Message.class), any(CorrelationData.class));
+
+        CompletableFuture<Void> batch = publisher.publishAll(List.of(outgoing("first"), outgoing("second")));
+
+        assertThatThrownBy(batch::join).hasRootCauseMessage("connection refused");
+        // only the message that reached the channel still waits for its confirm
+        assertThat(publisher.outstandingConfirms()).isEqualTo(1);
+        confirm(0, true);
+        assertThat(publisher.outstandingConfirms()).isZero();
+    }
+
+    private void confirm(int index, boolean ack) {
+        sent.get(index).getFuture().complete(new CorrelationData.Confirm(ack, ack ? null : "rejected"));
+    }
+
+    private static List<ConfirmedPublisher.Outgoing> batch(int size) {
+        List<ConfirmedPublisher.Outgoing> batch = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            batch.add(outgoing("key-" + i));
+        }
+        return batch;
+    }
+
+    private static ConfirmedPublisher.Outgoing outgoing(String routingKey) {
+        return new ConfirmedPublisher.Outgoing("orders", routingKey, new Message(new byte[0], new MessageProperties()));
+    }
+}
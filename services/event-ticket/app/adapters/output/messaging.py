@@ -1,8 +1,22 @@
 import asyncio
+import contextvars
 import aio_pika
 import orjson
 from typing import Optional
 
+# W3C trace context of the message being handled; copied onto everything published while handling it,
+# so the Java services continue the same trace (one trace per order).
+TRACE_HEADERS = ("traceparent", "tracestate")
+_trace_headers: contextvars.ContextVar[dict] = contextvars.ContextVar("trace_headers", default={})
+
+
+def _use_trace_headers(message: aio_pika.abc.AbstractIncomingMessage) -> None:
+    headers = message.headers or {}
+    _trace_headers.set({
+        key: value.decode() if isinstance(value, bytes) else str(value)
+        for key, value in headers.items() if key in TRACE_HEADERS
+    })
+
 # AMQP adapter to publish domain events and consume commands.
 class Broker:
     def __init__(self, amqp_url: str, exchange_name: str = "ticketchief") -> None:
@@ -37,7 +51,7 @@ class Broker:
         assert self._exchange is not None
         body = orjson.dumps(message)
         await self._exchange.publish(
-            aio_pika.Message(body=body, content_type="application/json"),
+            aio_pika.Message(body=body, content_type="application/json", headers=dict(_trace_headers.get())),
             routing_key=routing_key,
         )
 
@@ -50,6 +64,7 @@ class Broker:
 
         async def _on_message(message: aio_pika.abc.AbstractIncomingMessage) -> None:
             async with message.process():
+                _use_trace_headers(message)
                 try:
                     payload = orjson.loads(message.body)
                     await handler(payload)
@@ -71,6 +86,7 @@ class Broker:
 
         async def _on_message(message: aio_pika.abc.AbstractIncomingMessage) -> None:
             async with message.process():
+                _use_trace_headers(message)
                 try:
                     payload = orjson.loads(message.body)
                     await handler(payload)
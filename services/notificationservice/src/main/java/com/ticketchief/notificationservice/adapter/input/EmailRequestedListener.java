@@ -1,6 +1,7 @@
 package com.ticketchief.notificationservice.adapter.input;
 
 import com.ticketchief.common.events.EmailSendRequestedEvent;
+import com.ticketchief.common.metrics.PipelineMetrics;
 import com.ticketchief.notificationservice.application.EmailService;
 import static org.springframework.amqp.core.Binding.DestinationType.QUEUE;
 
@@ -15,15 +16,18 @@ public class EmailRequestedListener {
 
     private static final Logger log = LoggerFactory.getLogger(EmailRequestedListener.class);
     private final EmailService emailService;
+    private final PipelineMetrics pipelineMetrics;
 
-    public EmailRequestedListener(EmailService emailService) {
+    public EmailRequestedListener(EmailService emailService, PipelineMetrics pipelineMetrics) {
         this.emailService = emailService;
+        this.pipelineMetrics = pipelineMetrics;
     }
 
-    @RabbitListener(queues = "${app.rabbit.notification.queue:notifications.email.send.queue}")
+    @RabbitListener(id = "email-requested", queues = "${app.rabbit.notification.queue:notifications.email.send.queue}")
     public void onEmailRequested(EmailSendRequestedEvent ev) {
         log.info("Email request received: to={}, correlationId={}", ev.toEmail(), ev.correlationId());
-        emailService.sendInvoice(ev.toEmail(), ev.subject(), ev.bodyText(), ev.invoiceUrlOrPath());
+        pipelineMetrics.time(PipelineMetrics.EMAIL_SEND_INVOICE,
+                () -> emailService.sendInvoice(ev.toEmail(), ev.subject(), ev.bodyText(), ev.invoiceUrlOrPath()));
     }
 }
 
@@ -20,7 +20,7 @@ public class UserVerificationListener {
         this.emailService = emailService;
     }
 
-    @RabbitListener(queues = "${app.rabbit.notification.verification-queue:email.verification.queue}")
+    @RabbitListener(id = "user-verification", queues = "${app.rabbit.notification.verification-queue:email.verification.queue}")
     public void onUserVerificationRequested(Message raw) {
         try {
             String body = new String(raw.getBody(), raw.getMessageProperties().getContentEncoding() != null ? raw.getMessageProperties().getContentEncoding() : "UTF-8");
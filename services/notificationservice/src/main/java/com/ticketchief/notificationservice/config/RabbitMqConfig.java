@@ -1,5 +1,6 @@
 package com.ticketchief.notificationservice.config;
 
+import com.ticketchief.common.messaging.ListenerMetrics;
 import org.springframework.amqp.core.*;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
@@ -61,7 +62,11 @@ public class RabbitMqConfig {
                                          Jackson2JsonMessageConverter converter) {
         RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
         rabbitTemplate.setMessageConverter(converter);
+        // publish time for the consumers' rabbit.listener.lag
+        rabbitTemplate.setBeforePublishPostProcessors(ListenerMetrics.stampPublishTime());
         rabbitTemplate.setMandatory(true); // ensures unroutable messages are returned
+        // traceparent header from the current span
+        rabbitTemplate.setObservationEnabled(true);
         return rabbitTemplate;
     }
 }
@@ -0,0 +1,45 @@
+package com.ticketchief.orderservice.adapter.input;
+
+import com.ticketchief.common.events.InvoiceRequestedEvent;
+import com.ticketchief.common.metrics.PipelineMetrics;
+import com.ticketchief.orderservice.application.OrderService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Invoice generation stage. Runs on its own bounded set of consumers (listener id
+ * invoice-requested in app.rabbit.listeners) so PDF rendering never blocks the ticket.created
+ * consumers; pending work waits in the durable invoice queue. Render duration is the
+ * invoice.generate pipeline stage and queue depth the listener's rabbit.listener.queue.depth;
+ * the in-flight count is exported here.
+ */
+@Component
+public class InvoiceRequestedListener {
+    private final OrderService orderService;
+    private final PipelineMetrics pipelineMetrics;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public InvoiceRequestedListener(OrderService orderService,
+                                    PipelineMetrics pipelineMetrics,
+                                    MeterRegistry meterRegistry) {
+        this.orderService = orderService;
+        this.pipelineMetrics = pipelineMetrics;
+        Gauge.builder("invoice.generation.in_flight", inFlight, AtomicInteger::get)
+                .description("Invoices currently being generated")
+                .register(meterRegistry);
+    }
+
+    @RabbitListener(id = "invoice-requested", queues = "${app.rabbit.invoice.requested.queue:invoice.requested.queue}")
+    public void onInvoiceRequested(InvoiceRequestedEvent event) {
+        inFlight.incrementAndGet();
+        try {
+            pipelineMetrics.time(PipelineMetrics.INVOICE_GENERATE, () -> orderService.generateInvoice(event.orderId()));
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.ticketchief.orderservice.adapter.input;
+
+import com.ticketchief.orderservice.adapter.output.cache.BroadcastingOrderCache;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.stereotype.Component;
+
+@Component
+public class OrderCacheInvalidationListener {
+    private final BroadcastingOrderCache orderCache;
+
+    public OrderCacheInvalidationListener(BroadcastingOrderCache orderCache) {
+        this.orderCache = orderCache;
+    }
+
+    @RabbitListener(id = "order-cache-invalidation", queues = "#{orderCacheInvalidationQueue.name}")
+    public void onInvalidation(Long orderId, @Header(name = BroadcastingOrderCache.ORIGIN_HEADER, required = false) String origin) {
+        orderCache.onInvalidation(orderId, origin);
+    }
+}
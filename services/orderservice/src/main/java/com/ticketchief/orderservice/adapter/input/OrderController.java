@@ -1,20 +1,46 @@
 package com.ticketchief.orderservice.adapter.input;
 
+import com.ticketchief.common.events.PaymentProcessedEvent;
+import com.ticketchief.common.metrics.PipelineMetrics;
 import com.ticketchief.orderservice.application.OrderService;
+import com.ticketchief.orderservice.domain.CartChange;
+import com.ticketchief.orderservice.domain.CartChangeResult;
 import com.ticketchief.orderservice.domain.CartItem;
 import com.ticketchief.orderservice.domain.Order;
+import com.ticketchief.orderservice.domain.OrderPage;
+import com.ticketchief.orderservice.domain.OrderQuery;
+import com.ticketchief.orderservice.domain.PaymentAttempt;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/orders")
 public class OrderController {
     private final OrderService orderService;
+    private final PendingPaymentAwaiter paymentAwaiter;
+    private final PipelineMetrics pipelineMetrics;
 
-    public OrderController(OrderService orderService) {
+    @Value("${app.payments.result-timeout-ms:30000}")
+    private long paymentResultTimeoutMs = 30000;
+
+    public OrderController(OrderService orderService, PendingPaymentAwaiter paymentAwaiter, PipelineMetrics pipelineMetrics) {
         this.orderService = orderService;
+        this.paymentAwaiter = paymentAwaiter;
+        this.pipelineMetrics = pipelineMetrics;
     }
 
     @PostMapping
@@ -27,6 +53,13 @@ public class OrderController {
         return orderService.addItem(orderId, item);
     }
 
+    // Adds and removes many seats at once: {"add": [CartItem...], "remove": [itemId...]}; answers with the
+    // updated order and an outcome per entry, rejected entries do not stop the others
+    @PatchMapping("/{orderId}/items")
+    public CartChangeResult changeItems(@PathVariable Long orderId, @RequestBody CartChange change) {
+        return orderService.changeItems(orderId, change);
+    }
+
     @DeleteMapping("/{orderId}/items/{itemId}")
     public void deleteItem(@PathVariable Long orderId, @PathVariable Long itemId) {
         orderService.deleteItem(orderId, itemId);
@@ -37,6 +70,25 @@ public class OrderController {
         orderService.cancelOrder(orderId);
     }
 
+    // GET /api/orders?userId=...&status=PAID&createdFrom=2025-01-01T00:00:00Z&limit=20, newest first;
+    // pass the returned nextCursor as "after" for the following page
+    @GetMapping
+    public OrderPage listOrders(@RequestParam(required = false) UUID userId,
+                                @RequestParam(required = false) Order.Status status,
+                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime createdFrom,
+                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime createdTo,
+                                @RequestParam(required = false) String after,
+                                @RequestParam(defaultValue = "20") int limit) {
+        OrderQuery.Cursor cursor;
+        try {
+            cursor = after == null ? null : OrderQuery.Cursor.decode(after);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        return orderService.listOrders(new OrderQuery(userId == null ? null : userId.toString(), status,
+                createdFrom, createdTo, cursor, limit));
+    }
+
     @GetMapping("/{orderId}")
     public Order findOrder(@PathVariable Long orderId) {
         return orderService.findOrder(orderId);
@@ -44,12 +96,64 @@ public class OrderController {
 
     @PostMapping("/{orderId}/payments")
     public java.util.Map<String, String> initiatePayment(@PathVariable Long orderId) {
-        String correlationId = orderService.finalizeOrder(orderId);
+        String correlationId = pipelineMetrics.time(PipelineMetrics.ORDER_FINALIZE, () -> orderService.finalizeOrder(orderId));
         return java.util.Collections.singletonMap("correlationId", correlationId);
     }
 
+    // Pushes one "payment-result" event once the order has applied the final payment outcome, then
+    // closes. On timeout the stream just ends; EventSource reconnects, which re-checks the stored outcome first.
+    // 404 if correlationId is not a payment of this order.
+    @GetMapping(path = "/{orderId}/payments/{correlationId}/result", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter awaitPaymentResult(@PathVariable Long orderId, @PathVariable String correlationId) {
+        // registered before reading the stored outcome, so an outcome applied in between is not missed
+        CompletableFuture<PaymentProcessedEvent> result = paymentAwaiter.register(correlationId);
+        Runnable release = () -> paymentAwaiter.cancel(correlationId, result);
+        PaymentAttempt attempt;
+        try {
+            attempt = orderService.findPaymentAttempt(orderId, correlationId);
+        } catch (RuntimeException e) {
+            release.run();
+            throw e;
+        }
+        if (attempt == null) {
+            release.run();
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND,
+                    "No payment " + correlationId + " for order " + orderId);
+        }
+        SseEmitter emitter = new SseEmitter(paymentResultTimeoutMs);
+        emitter.onCompletion(release);
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> release.run());
+        result.thenAccept(event -> {
+            try {
+                emitter.send(SseEmitter.event().name("payment-result").data(event, MediaType.APPLICATION_JSON));
+                emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+            }
+        });
+        // settled before this request started waiting, e.g. a reconnect to a replica that was down for the broadcast
+        if (attempt.isSettled()) {
+            result.complete(attempt.toEvent());
+        }
+        return emitter;
+    }
+
     @GetMapping("/{orderId}/invoice")
-    public ResponseEntity<byte[]> getInvoice(@PathVariable Long orderId) throws IOException {
+    public ResponseEntity<Resource> getInvoice(@PathVariable Long orderId) throws IOException {
         return orderService.getInvoice(orderId);
     }
+
+    @GetMapping("/{orderId}/items/{itemId}/qr")
+    public ResponseEntity<byte[]> getTicketQr(@PathVariable Long orderId, @PathVariable Long itemId) {
+        return orderService.getTicketQr(orderId, itemId);
+    }
+
+    // Another request or event changed the order between our read and write; the client should
+    // reload it and decide whether to repeat the change
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, String>> onConflict(OptimisticLockingFailureException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("error", "Order was modified concurrently, reload it and retry"));
+    }
 }
@@ -0,0 +1,56 @@
+package com.ticketchief.orderservice.adapter.input;
+
+import io.micrometer.context.ContextSnapshotFactory;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixed set of single-threaded lanes for order events. An order id always hashes to the same lane,
+ * so work for one order runs one task at a time in submission order, while different orders run
+ * in parallel on other lanes.
+ * <p>
+ * Ordering holds only if submissions arrive in queue order, so the listeners feeding the lanes must
+ * run a single consumer per queue (concurrency 1) and get their parallelism from prefetch instead.
+ */
+@Component
+public class OrderLanes {
+
+    private final ExecutorService[] lanes;
+    private final ContextSnapshotFactory contextSnapshots = ContextSnapshotFactory.builder().build();
+
+    public OrderLanes(@Value("${app.rabbit.order-lanes:8}") int laneCount) {
+        this.lanes = new ExecutorService[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = Executors.newSingleThreadExecutor(Thread.ofPlatform().name("order-lane-" + i).factory());
+        }
+    }
+
+    /**
+     * Runs {@code task} on the lane owning {@code orderId}. Ids are hashed by their string form, so
+     * the numeric id of payment events and the string id of ticket events share a lane.
+     */
+    public CompletableFuture<Void> submit(Object orderId, Runnable task) {
+        // the lane continues the caller's trace (and any other thread-local context)
+        return CompletableFuture.runAsync(contextSnapshots.captureAll().wrap(task), lanes[laneOf(orderId)]);
+    }
+
+    int laneOf(Object orderId) {
+        return Math.floorMod(String.valueOf(orderId).hashCode(), lanes.length);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+        for (ExecutorService lane : lanes) {
+            lane.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -1,21 +1,72 @@
 package com.ticketchief.orderservice.adapter.input;
 
 import com.ticketchief.common.events.PaymentProcessedEvent;
+import com.ticketchief.common.metrics.PipelineMetrics;
 import com.ticketchief.orderservice.port.input.OrderPaymentServicePort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.MessageDeliveryMode;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.CompletableFuture;
+
 @Component
 public class PaymentProcessedListener {
+    private static final Logger log = LoggerFactory.getLogger(PaymentProcessedListener.class);
+
     private final OrderPaymentServicePort orderPaymentServicePort;
+    private final OrderLanes orderLanes;
+    private final PendingPaymentAwaiter awaiter;
+    private final RabbitTemplate rabbitTemplate;
+    private final PipelineMetrics pipelineMetrics;
 
-    public PaymentProcessedListener(OrderPaymentServicePort orderPaymentServicePort, RabbitTemplate rabbitTemplate) {
+    @Value("${app.rabbit.payment.results.broadcast-exchange:payment.results.broadcast}")
+    private String broadcastExchange;
+
+    public PaymentProcessedListener(OrderPaymentServicePort orderPaymentServicePort, OrderLanes orderLanes,
+                                    PendingPaymentAwaiter awaiter, RabbitTemplate rabbitTemplate,
+                                    PipelineMetrics pipelineMetrics) {
         this.orderPaymentServicePort = orderPaymentServicePort;
+        this.orderLanes = orderLanes;
+        this.awaiter = awaiter;
+        this.rabbitTemplate = rabbitTemplate;
+        this.pipelineMetrics = pipelineMetrics;
+    }
+
+    // Handed to the order's lane; the message is acked once the returned future completes, so up to
+    // prefetch messages for different orders are processed at the same time. Waiting clients are only
+    // told about the result once the order reflects it.
+    @RabbitListener(id = "payment-processed", queues = "payment.processed.queue", ackMode = "MANUAL")
+    public CompletableFuture<Void> onPaymentProcessed(PaymentProcessedEvent event) {
+        return pipelineMetrics.timeAsync(PipelineMetrics.ORDER_PAYMENT_PROCESSED,
+                        () -> orderLanes.submit(event.orderId(), () -> orderPaymentServicePort.onPaymentProcessed(event)))
+                .thenRun(() -> {
+                    awaiter.complete(event);
+                    broadcast(event);
+                });
+    }
+
+    // Results applied by any replica (this one included) arrive here
+    @RabbitListener(id = "payment-results-broadcast", queues = "#{paymentResultsBroadcastQueue.name}")
+    public void onPaymentResultBroadcast(PaymentProcessedEvent event) {
+        awaiter.complete(event);
     }
 
-    @RabbitListener(queues = "payment.processed.queue")
-    public void onPaymentProcessed(PaymentProcessedEvent event) {
-        orderPaymentServicePort.onPaymentProcessed(event);
+    private void broadcast(PaymentProcessedEvent event) {
+        if (event.correlationId() == null) {
+            return;
+        }
+        try {
+            // only a wake-up for waiting requests; clients can still read the order if it is lost
+            rabbitTemplate.convertAndSend(broadcastExchange, "", event, message -> {
+                message.getMessageProperties().setDeliveryMode(MessageDeliveryMode.NON_PERSISTENT);
+                return message;
+            });
+        } catch (RuntimeException e) {
+            log.warn("Failed to broadcast payment result for orderId={}: {}", event.orderId(), e.getMessage());
+        }
     }
 }
@@ -1,30 +1,83 @@
 package com.ticketchief.orderservice.adapter.input;
 
 import com.ticketchief.common.events.PaymentProcessedEvent;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.*;
 
+/**
+ * Hands final payment results to the requests waiting for them. Any number of requests may wait on one
+ * correlationId; all of them are completed by the same event. Results are also kept in a small LRU so a
+ * request that starts waiting just after the event arrived still gets it instead of timing out.
+ */
 @Component
 public class PendingPaymentAwaiter {
-    private final Map<String, CompletableFuture<PaymentProcessedEvent>> map = new ConcurrentHashMap<>();
+    private final Map<String, Set<CompletableFuture<PaymentProcessedEvent>>> waiters = new ConcurrentHashMap<>();
+    private final Map<String, PaymentProcessedEvent> recent;
+
+    public PendingPaymentAwaiter(@Value("${app.payments.recent-results.max-entries:10000}") int maxRecentResults) {
+        this.recent = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PaymentProcessedEvent> eldest) {
+                return size() > maxRecentResults;
+            }
+        });
+    }
 
     public void complete(PaymentProcessedEvent event) {
-        var f = map.remove(event.correlationId());
-        if (f != null) {
-            f.complete(event);
+        // nobody can be waiting for a result without a correlationId (and the maps reject null keys)
+        if (event.correlationId() == null) {
+            return;
+        }
+        // remembered before the waiters are taken, so register() either finds the result or is in the set
+        recent.put(event.correlationId(), event);
+        var futures = waiters.remove(event.correlationId());
+        if (futures != null) {
+            futures.forEach(f -> f.complete(event));
         }
     }
 
-    public PaymentProcessedEvent await(String correlationId, Duration timeout) throws InterruptedException, ExecutionException, TimeoutException {
+    // The returned future completes with the result; callers that give up must cancel(...) it
+    public CompletableFuture<PaymentProcessedEvent> register(String correlationId) {
         var fut = new CompletableFuture<PaymentProcessedEvent>();
-        map.put(correlationId, fut);
+        // added inside compute so a concurrent cancel() cannot drop the set this future went into
+        waiters.compute(correlationId, (id, futures) -> {
+            var set = futures != null ? futures : ConcurrentHashMap.<CompletableFuture<PaymentProcessedEvent>>newKeySet();
+            set.add(fut);
+            return set;
+        });
+        PaymentProcessedEvent known = recent.get(correlationId);
+        if (known != null) {
+            cancel(correlationId, fut);
+            fut.complete(known);
+        }
+        return fut;
+    }
+
+    public void cancel(String correlationId, CompletableFuture<PaymentProcessedEvent> fut) {
+        waiters.computeIfPresent(correlationId, (id, futures) -> {
+            futures.remove(fut);
+            return futures.isEmpty() ? null : futures;
+        });
+    }
+
+    public PaymentProcessedEvent await(String correlationId, Duration timeout) throws InterruptedException, ExecutionException, TimeoutException {
+        var fut = register(correlationId);
         try {
             return fut.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
         } finally {
-            map.remove(correlationId);
+            cancel(correlationId, fut);
         }
     }
+
+    int waiting(String correlationId) {
+        var futures = waiters.get(correlationId);
+        return futures == null ? 0 : futures.size();
+    }
 }
@@ -1,21 +1,65 @@
 package com.ticketchief.orderservice.adapter.input;
 
 import com.ticketchief.common.events.TicketCreatedEvent;
+import com.ticketchief.common.metrics.PipelineMetrics;
+import com.ticketchief.common.tracing.MessageTracing;
 import com.ticketchief.orderservice.application.OrderService;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.messaging.Message;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 @Component
 public class TicketCreatedListener {
     private final OrderService orderService;
+    private final OrderLanes orderLanes;
+    private final PipelineMetrics pipelineMetrics;
+    private final MessageTracing tracing;
 
-    public TicketCreatedListener(OrderService orderService) {
+    public TicketCreatedListener(OrderService orderService, OrderLanes orderLanes, PipelineMetrics pipelineMetrics,
+                                 MessageTracing tracing) {
         this.orderService = orderService;
+        this.orderLanes = orderLanes;
+        this.pipelineMetrics = pipelineMetrics;
+        this.tracing = tracing;
     }
 
-    @RabbitListener(queues = "${app.rabbit.ticket.created.queue:ticket.created.queue}")
-    public void handleTicketCreated(TicketCreatedEvent event) {
-        orderService.onTicketCreated(event);
+    // Each order's share of the batch runs on that order's lane (timed per order, including the wait for
+    // the lane); the batch is acked after all of them. Batches are not observed by the container, so each
+    // order gets a consumer span continuing the trace of its first message.
+    @RabbitListener(id = "ticket-created", queues = "${app.rabbit.ticket.created.queue:ticket.created.queue}",
+            batch = "true")
+    public void handleTicketsCreated(List<Message<TicketCreatedEvent>> messages) {
+        Map<String, List<Message<TicketCreatedEvent>>> messagesByOrder = new LinkedHashMap<>();
+        for (Message<TicketCreatedEvent> message : messages) {
+            messagesByOrder.computeIfAbsent(message.getPayload().orderId(), id -> new ArrayList<>()).add(message);
+        }
+        CompletableFuture.allOf(messagesByOrder.entrySet().stream()
+                        .map(e -> pipelineMetrics.timeAsync(PipelineMetrics.ORDER_TICKETS_CREATED,
+                                () -> handleOrder(e.getKey(), e.getValue())))
+                        .toArray(CompletableFuture[]::new))
+                .join();
     }
-}
 
+    private CompletableFuture<Void> handleOrder(String orderId, List<Message<TicketCreatedEvent>> messages) {
+        List<TicketCreatedEvent> events = messages.stream().map(Message::getPayload).toList();
+        Span span = tracing.startConsumer("ticket-created receive", messages.get(0).getHeaders())
+                .tag("order.id", orderId);
+        try (Tracer.SpanInScope ignored = tracing.withSpan(span)) {
+            return orderLanes.submit(orderId, () -> orderService.onTicketsCreated(events))
+                    .whenComplete((result, failure) -> {
+                        if (failure != null) {
+                            span.error(failure);
+                        }
+                        span.end();
+                    });
+        }
+    }
+}
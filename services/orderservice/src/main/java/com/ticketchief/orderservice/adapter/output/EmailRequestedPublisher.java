@@ -1,10 +1,10 @@
 package com.ticketchief.orderservice.adapter.output;
 
 import com.ticketchief.common.events.EmailSendRequestedEvent;
+import com.ticketchief.orderservice.adapter.output.outbox.TransactionalOutbox;
 import com.ticketchief.orderservice.port.output.PublishEmailRequestedPort;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -13,15 +13,15 @@ public class EmailRequestedPublisher implements PublishEmailRequestedPort {
 
     private static final Logger log = LoggerFactory.getLogger(EmailRequestedPublisher.class);
 
-    private final RabbitTemplate rabbitTemplate;
+    private final TransactionalOutbox outbox;
     private final String exchange;
     private final String routingKey;
 
     public EmailRequestedPublisher(
-            RabbitTemplate rabbitTemplate,
+            TransactionalOutbox outbox,
             @Value("${app.rabbit.notification.exchange:notifications.exchange}") String exchange,
             @Value("${app.rabbit.notification.routing-key:email.send}") String routingKey) {
-        this.rabbitTemplate = rabbitTemplate;
+        this.outbox = outbox;
         this.exchange = exchange;
         this.routingKey = routingKey;
     }
@@ -37,6 +37,6 @@ public class EmailRequestedPublisher implements PublishEmailRequestedPort {
         );
 
         log.info("Publishing EmailSendRequestedEvent for {}", emailEvent.toEmail());
-        rabbitTemplate.convertAndSend(exchange, routingKey, emailEvent);
+        outbox.enqueue(exchange, routingKey, emailEvent);
     }
 }
@@ -0,0 +1,28 @@
+package com.ticketchief.orderservice.adapter.output;
+
+import com.ticketchief.common.events.InvoiceRequestedEvent;
+import com.ticketchief.orderservice.adapter.output.outbox.TransactionalOutbox;
+import com.ticketchief.orderservice.port.output.RequestInvoicePort;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class RabbitInvoiceRequestedPublisher implements RequestInvoicePort {
+
+    private final TransactionalOutbox outbox;
+    private final String exchange;
+    private final String routingKey;
+
+    public RabbitInvoiceRequestedPublisher(TransactionalOutbox outbox,
+                                           @Value("${app.rabbit.payment.exchange:payments.exchange}") String exchange,
+                                           @Value("${app.rabbit.invoice.requested.routing-key:invoice.requested}") String routingKey) {
+        this.outbox = outbox;
+        this.exchange = exchange;
+        this.routingKey = routingKey;
+    }
+
+    @Override
+    public void requestInvoice(Long orderId) {
+        outbox.enqueue(exchange, routingKey, new InvoiceRequestedEvent(orderId));
+    }
+}
@@ -2,20 +2,20 @@ package com.ticketchief.orderservice.adapter.output;
 
 
 import com.ticketchief.common.events.PaymentRequestedEvent;
+import com.ticketchief.orderservice.adapter.output.outbox.TransactionalOutbox;
 import com.ticketchief.orderservice.config.PaymentRabbitProperties;
 import com.ticketchief.orderservice.port.output.PublishPaymentRequestedPort;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.stereotype.Component;
 
 @Component
 public class RabbitPaymentRequestedPublisher implements PublishPaymentRequestedPort {
 
-    private final RabbitTemplate rabbitTemplate;
+    private final TransactionalOutbox outbox;
     private final PaymentRabbitProperties props;
 
 
-    public RabbitPaymentRequestedPublisher(RabbitTemplate rabbitTemplate, PaymentRabbitProperties props) {
-        this.rabbitTemplate = rabbitTemplate;
+    public RabbitPaymentRequestedPublisher(TransactionalOutbox outbox, PaymentRabbitProperties props) {
+        this.outbox = outbox;
         this.props = props;
     }
 
@@ -27,8 +27,8 @@ public class RabbitPaymentRequestedPublisher implements PublishPaymentRequestedP
                 amountCents
         );
 
-        // convertAndSend will use the Jackson2JsonMessageConverter configured on RabbitTemplate
-        rabbitTemplate.convertAndSend(props.getExchange(), props.getRoutingKey(), dto);
+        // stored in the outbox with this order's transaction; OutboxRelay publishes it after commit
+        outbox.enqueue(props.getExchange(), props.getRoutingKey(), dto);
     }
 }
 
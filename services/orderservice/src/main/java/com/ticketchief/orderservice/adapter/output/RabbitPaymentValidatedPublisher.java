@@ -1,8 +1,8 @@
 package com.ticketchief.orderservice.adapter.output;
 
 import com.ticketchief.common.events.PaymentValidatedEvent;
+import com.ticketchief.orderservice.adapter.output.outbox.TransactionalOutbox;
 import com.ticketchief.orderservice.port.output.PublishPaymentValidatedPort;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -11,14 +11,14 @@ import java.util.List;
 @Component
 public class RabbitPaymentValidatedPublisher implements PublishPaymentValidatedPort {
 
-    private final RabbitTemplate rabbitTemplate;
+    private final TransactionalOutbox outbox;
     private final String exchange;
     private final String routingKey;
 
-    public RabbitPaymentValidatedPublisher(RabbitTemplate rabbitTemplate,
+    public RabbitPaymentValidatedPublisher(TransactionalOutbox outbox,
                                            @Value("${app.rabbit.payment.exchange:ticketchief}") String exchange,
                                            @Value("${app.rabbit.payment.validated.routing-key:payment.validated}") String routingKey) {
-        this.rabbitTemplate = rabbitTemplate;
+        this.outbox = outbox;
         this.exchange = exchange;
         this.routingKey = routingKey;
     }
@@ -28,7 +28,7 @@ public class RabbitPaymentValidatedPublisher implements PublishPaymentValidatedP
         PaymentValidatedEvent event = new PaymentValidatedEvent(
                 orderId, eventId, seats, userId, reservationId
         );
-        rabbitTemplate.convertAndSend(exchange, routingKey, event);
+        outbox.enqueue(exchange, routingKey, event);
     }
 }
 
@@ -1,22 +1,22 @@
 package com.ticketchief.orderservice.adapter.output;
 
 import com.ticketchief.common.events.ReservationReleaseRequestedEvent;
+import com.ticketchief.orderservice.adapter.output.outbox.TransactionalOutbox;
 import com.ticketchief.orderservice.port.output.PublishReservationReleasePort;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 @Component
 public class RabbitReservationReleasePublisher implements PublishReservationReleasePort {
 
-    private final RabbitTemplate rabbitTemplate;
+    private final TransactionalOutbox outbox;
     private final String exchange;
     private final String routingKey;
 
-    public RabbitReservationReleasePublisher(RabbitTemplate rabbitTemplate,
+    public RabbitReservationReleasePublisher(TransactionalOutbox outbox,
                                              @Value("${app.rabbit.exchange:ticketchief}") String exchange,
                                              @Value("${app.rabbit.reservation.release.routing-key:reservation.release}") String routingKey) {
-        this.rabbitTemplate = rabbitTemplate;
+        this.outbox = outbox;
         this.exchange = exchange;
         this.routingKey = routingKey;
     }
@@ -24,6 +24,6 @@ public class RabbitReservationReleasePublisher implements PublishReservationRele
     @Override
     public void publishReservationRelease(String reservationId, String orderId) {
         ReservationReleaseRequestedEvent ev = new ReservationReleaseRequestedEvent(reservationId, orderId);
-        rabbitTemplate.convertAndSend(exchange, routingKey, ev);
+        outbox.enqueue(exchange, routingKey, ev);
     }
 }
@@ -0,0 +1,124 @@
+package com.ticketchief.orderservice.adapter.output.cache;
+
+import com.ticketchief.orderservice.domain.Order;
+import com.ticketchief.orderservice.port.output.OrderCachePort;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * In-process LRU of orders for the read path, bounded by size and by age. Writers evict after commit and
+ * the eviction is fanned out to the other replicas; the age limit bounds staleness if such a message is lost.
+ */
+@Component
+public class BroadcastingOrderCache implements OrderCachePort {
+    public static final String ORIGIN_HEADER = "x-origin";
+
+    private static final Logger log = LoggerFactory.getLogger(BroadcastingOrderCache.class);
+
+    private final RabbitTemplate rabbitTemplate;
+    private final String invalidationExchange;
+    private final long ttlNanos;
+    private final Map<Long, Entry> entries;
+    // bumped on every eviction; a load that overlapped one is not cached, as it may predate the change
+    private final AtomicLong evictions = new AtomicLong();
+    private final String origin = UUID.randomUUID().toString();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictionCount;
+
+    public BroadcastingOrderCache(RabbitTemplate rabbitTemplate, MeterRegistry registry,
+                                  @Value("${app.orders.cache.max-entries:10000}") int maxEntries,
+                                  @Value("${app.orders.cache.ttl-ms:10000}") long ttlMs,
+                                  @Value("${app.rabbit.order-cache.invalidation-exchange:orders.cache.invalidation}") String invalidationExchange) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.invalidationExchange = invalidationExchange;
+        this.ttlNanos = ttlMs * 1_000_000;
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        });
+        this.hits = Counter.builder("cache.gets").tag("cache", "orders").tag("result", "hit").register(registry);
+        this.misses = Counter.builder("cache.gets").tag("cache", "orders").tag("result", "miss").register(registry);
+        this.evictionCount = Counter.builder("cache.evictions").tag("cache", "orders").register(registry);
+        Gauge.builder("cache.size", entries, Map::size).tag("cache", "orders").register(registry);
+    }
+
+    @Override
+    public Order get(Long orderId, Function<Long, Order> loader) {
+        Entry entry = entries.get(orderId);
+        if (entry != null && System.nanoTime() - entry.loadedAt < ttlNanos) {
+            hits.increment();
+            return entry.order;
+        }
+        misses.increment();
+        long stamp = evictions.get();
+        long loadedAt = System.nanoTime();
+        Order order = loader.apply(orderId);
+        if (evictions.get() == stamp) {
+            entries.put(orderId, new Entry(order, loadedAt));
+        }
+        return order;
+    }
+
+    @Override
+    public void evict(Long orderId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // evicting before commit would let a reader cache the old state again right away
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictEverywhere(orderId);
+                }
+            });
+        } else {
+            evictEverywhere(orderId);
+        }
+    }
+
+    // Invalidations from other replicas; our own come back through the fanout too and are skipped
+    public void onInvalidation(Long orderId, String fromOrigin) {
+        if (!origin.equals(fromOrigin)) {
+            evictLocally(orderId);
+        }
+    }
+
+    private void evictEverywhere(Long orderId) {
+        evictLocally(orderId);
+        try {
+            rabbitTemplate.convertAndSend(invalidationExchange, "", orderId, message -> {
+                message.getMessageProperties().setDeliveryMode(MessageDeliveryMode.NON_PERSISTENT);
+                message.getMessageProperties().setHeader(ORIGIN_HEADER, origin);
+                return message;
+            });
+        } catch (RuntimeException e) {
+            log.warn("Failed to broadcast cache invalidation for orderId={}: {}", orderId, e.getMessage());
+        }
+    }
+
+    private void evictLocally(Long orderId) {
+        evictions.incrementAndGet();
+        if (entries.remove(orderId) != null) {
+            evictionCount.increment();
+        }
+    }
+
+    private record Entry(Order order, long loadedAt) {}
+}
@@ -0,0 +1,129 @@
+package com.ticketchief.orderservice.adapter.output.invoice;
+
+import com.lowagie.text.*;
+import com.lowagie.text.pdf.PdfPTable;
+import com.lowagie.text.pdf.PdfWriter;
+import com.ticketchief.orderservice.domain.CartItem;
+import com.ticketchief.orderservice.domain.Order;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.text.NumberFormat;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Produces the same invoice as {@link PdfInvoiceRenderer}, but everything that does not depend on
+ * the order (fonts, column widths, the items table header) is built once per JVM, so a render only
+ * streams the per-order rows and QR images. Output can go straight to the destination stream.
+ */
+public final class CachedPdfInvoiceRenderer {
+
+    private static final Font TITLE_FONT = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 20);
+    private static final Font TOTAL_FONT = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 12);
+    private static final Font SECTION_FONT = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 14);
+    private static final float[] COLUMN_WIDTHS = {2.5f, 2.5f, 2.0f, 2.0f};
+    // never added to a document itself; each render works on a copy
+    private static final PdfPTable ITEMS_TABLE_TEMPLATE = itemsTableTemplate();
+    // NumberFormat is not thread-safe; renders clone this prototype
+    private static final NumberFormat CURRENCY = NumberFormat.getCurrencyInstance(Locale.CANADA);
+
+    private static final String TITLE = "Invoice - Ticketchief";
+    private static final String QR_SECTION = "Ticket QR Codes";
+    private static final String QR_PENDING = "Tickets are being finalized. QR codes will appear once seats are confirmed.";
+    private static final int BASE_SIZE_BYTES = 4 * 1024;
+    private static final int QR_SIZE_BYTES = 2 * 1024;
+
+    private CachedPdfInvoiceRenderer() {}
+
+    public static byte[] render(Order order, Map<String, byte[]> qrImages) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(BASE_SIZE_BYTES + order.getItems().size() * QR_SIZE_BYTES);
+        render(order, qrImages, baos);
+        return baos.toByteArray();
+    }
+
+    public static void render(Order order, Map<String, byte[]> qrImages, OutputStream out) {
+        try {
+            NumberFormat currency = (NumberFormat) CURRENCY.clone();
+            Document doc = new Document(PageSize.A4, 36, 36, 36, 36);
+            PdfWriter.getInstance(doc, out);
+            doc.open();
+
+            // Header
+            var title = new Paragraph(TITLE, TITLE_FONT);
+            title.setAlignment(Element.ALIGN_CENTER);
+            doc.add(title);
+
+            doc.add(new Paragraph(" "));
+            doc.add(new Paragraph("Order ID: " + order.getId()));
+            doc.add(new Paragraph("User ID: " + order.getUserId()));
+            doc.add(new Paragraph("Date: " + LocalDate.now().format(DateTimeFormatter.ISO_LOCAL_DATE)));
+            doc.add(new Paragraph(" "));
+
+            // Items table
+            PdfPTable table = new PdfPTable(ITEMS_TABLE_TEMPLATE);
+            for (CartItem it : order.getItems()) {
+                table.addCell(String.valueOf(it.eventId()));
+                table.addCell(String.valueOf(it.seatId()));
+                table.addCell(currency.format(it.unitPriceCents() / 100.0));
+                table.addCell("1");
+            }
+            doc.add(table);
+
+            doc.add(new Paragraph(" "));
+            // figures stored on the order, i.e. exactly what was charged
+            var subtotalP = new Paragraph("Subtotal: " + currency.format(order.getSubtotalCents() / 100.0));
+            subtotalP.setAlignment(Element.ALIGN_RIGHT);
+            doc.add(subtotalP);
+            var taxP = new Paragraph("Tax: " + currency.format(order.getTaxAmountCents() / 100.0));
+            taxP.setAlignment(Element.ALIGN_RIGHT);
+            doc.add(taxP);
+            var totalP = new Paragraph("Total: " + currency.format(order.getTotalAmountCents() / 100.0), TOTAL_FONT);
+            totalP.setAlignment(Element.ALIGN_RIGHT);
+            doc.add(totalP);
+
+            doc.add(new Paragraph(" "));
+            doc.add(new Paragraph(QR_SECTION, SECTION_FONT));
+
+            boolean hasQr = false;
+            for (CartItem item : order.getItems()) {
+                if (item.ticketQrId() == null) {
+                    continue;
+                }
+                hasQr = true;
+                doc.add(new Paragraph("Event " + item.eventId() + " - Seat " + item.seatId()));
+                if (item.ticketId() != null) {
+                    doc.add(new Paragraph("Ticket ID: " + item.ticketId()));
+                }
+                byte[] qrBytes = qrImages.get(item.ticketQrId());
+                if (qrBytes != null) {
+                    Image qrImage = Image.getInstance(qrBytes);
+                    qrImage.scaleToFit(150, 150);
+                    qrImage.setAlignment(Element.ALIGN_LEFT);
+                    doc.add(qrImage);
+                }
+                doc.add(new Paragraph(" "));
+            }
+
+            if (!hasQr) {
+                doc.add(new Paragraph(QR_PENDING));
+            }
+
+            doc.close();
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to render invoice PDF", e);
+        }
+    }
+
+    private static PdfPTable itemsTableTemplate() {
+        PdfPTable table = new PdfPTable(COLUMN_WIDTHS);
+        table.setWidthPercentage(100);
+        table.addCell("Event ID");
+        table.addCell("Seat ID");
+        table.addCell("Price");
+        table.addCell("Quantity");
+        return table;
+    }
+}
@@ -6,9 +6,19 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.FileSystemException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 @Component
 @RequiredArgsConstructor
@@ -20,27 +30,87 @@ public class PdfInvoiceAdapter implements InvoicePort {
     @Value("${app.invoice.base-url}")
     private String baseUrl;
 
+    // bytes of the SHA-256 content hash kept in invoice file names (16 hex characters)
+    static final int HASH_BYTES = 8;
+    private static final double MAX_GZIP_RATIO = 0.9;
+
+    // "cached" streams from the precompiled template renderer, "classic" rebuilds everything per invoice
+    @Value("${app.invoice.renderer:cached}")
+    private String renderer;
+
     @Override
-    public InvoiceResult generateInvoice(Order order) {
+    public InvoiceResult generateInvoice(Order order, Map<String, byte[]> qrImages) {
         try {
-            String invoiceId = String.valueOf(order.getId());
-            byte[] pdf = PdfInvoiceRenderer.render(order);
+            String orderId = String.valueOf(order.getId());
 
             Path dir = Paths.get(storageDir);
             Files.createDirectories(dir);
 
-            Path path = dir.resolve(invoiceId + ".pdf").toAbsolutePath();
-            Files.write(path, pdf);
+            // render next to the target and move it into place, so a half-written file is never served
+            Path tmp = Files.createTempFile(dir, orderId + "-", ".pdf.tmp");
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                try (OutputStream out = new DigestOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)), digest)) {
+                    if ("classic".equalsIgnoreCase(renderer)) {
+                        out.write(PdfInvoiceRenderer.render(order, qrImages));
+                    } else {
+                        CachedPdfInvoiceRenderer.render(order, qrImages, out);
+                    }
+                }
+                // content-addressed name: the file behind a URL never changes, so it can be cached forever
+                String invoiceId = orderId + "-" + HexFormat.of().formatHex(digest.digest(), 0, HASH_BYTES);
+                Path path = dir.resolve(invoiceId + ".pdf").toAbsolutePath();
+                Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                precompress(path);
+                publishLatest(path, dir.resolve(orderId + ".pdf"), orderId);
 
-            String url = baseUrl + "/" + invoiceId + ".pdf";
-            System.out.println("Invoice saved: " + path);
-            System.out.println("Invoice URL: " + url);
+                String url = baseUrl + "/" + invoiceId + ".pdf";
+                System.out.println("Invoice saved: " + path);
+                System.out.println("Invoice URL: " + url);
 
-            return new InvoiceResult(invoiceId, url);
+                return new InvoiceResult(invoiceId, url);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
         } catch (Exception e) {
             throw new IllegalStateException("Failed to generate and store invoice", e);
         }
+    }
 
+    // Writes {invoice}.pdf.gz next to the invoice when it saves enough to be worth serving: the QR
+    // images embedded by OpenPDF still shrink by roughly 40% under gzip.
+    private static void precompress(Path invoice) throws IOException {
+        Path gz = invoice.resolveSibling(invoice.getFileName() + ".gz");
+        // unique per render: the same invoice may be rendered twice at once (redelivery, parallel workers)
+        Path tmp = Files.createTempFile(invoice.getParent(), invoice.getFileName() + "-", ".gz.tmp");
+        try {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(tmp))) {
+                Files.copy(invoice, out);
+            }
+            if (Files.size(tmp) < Files.size(invoice) * MAX_GZIP_RATIO) {
+                Files.move(tmp, gz, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
 
+    // {orderId}.pdf always points at the newest invoice of the order (used by GET /api/orders/{id}/invoice);
+    // a hard link avoids storing the bytes twice, with a copy as fallback where links are unsupported.
+    // The link is made under a name of its own so concurrent renders of one order never touch each other's.
+    private static void publishLatest(Path invoice, Path latest, String orderId) throws IOException {
+        Path tmp = Files.createTempFile(latest.toAbsolutePath().getParent(), orderId + "-latest-", ".tmp");
+        try {
+            // createLink needs a free name, so the reserved placeholder is dropped just before
+            Files.delete(tmp);
+            try {
+                Files.createLink(tmp, invoice);
+            } catch (UnsupportedOperationException | FileSystemException e) {
+                Files.copy(invoice, tmp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            Files.move(tmp, latest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
     }
 }
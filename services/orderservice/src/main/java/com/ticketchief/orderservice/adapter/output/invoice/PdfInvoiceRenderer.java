@@ -7,20 +7,22 @@ import com.ticketchief.orderservice.domain.CartItem;
 import com.ticketchief.orderservice.domain.Order;
 
 import java.io.ByteArrayOutputStream;
-import java.util.Base64;
 import java.text.NumberFormat;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.Locale;
+import java.util.Map;
 
 public final class PdfInvoiceRenderer {
 
-    private static final NumberFormat currency = NumberFormat.getCurrencyInstance(Locale.CANADA);
+    // NumberFormat is not thread-safe; renders clone this prototype
+    private static final NumberFormat CURRENCY = NumberFormat.getCurrencyInstance(Locale.CANADA);
 
     private PdfInvoiceRenderer() {}
 
-    public static byte[] render(Order order) {
+    public static byte[] render(Order order, Map<String, byte[]> qrImages) {
         try {
+            NumberFormat currency = (NumberFormat) CURRENCY.clone();
             ByteArrayOutputStream baos = new ByteArrayOutputStream();
             Document doc = new Document(PageSize.A4, 36, 36, 36, 36);
             PdfWriter.getInstance(doc, baos);
@@ -55,8 +57,14 @@ public final class PdfInvoiceRenderer {
             doc.add(table);
 
             doc.add(new Paragraph(" "));
-            long total = order.getItems().stream().mapToLong(CartItem::unitPriceCents).sum();
-            String totalStr = currency.format(total / 100.0);
+            // figures stored on the order, i.e. exactly what was charged
+            var subtotalP = new Paragraph("Subtotal: " + currency.format(order.getSubtotalCents() / 100.0));
+            subtotalP.setAlignment(Element.ALIGN_RIGHT);
+            doc.add(subtotalP);
+            var taxP = new Paragraph("Tax: " + currency.format(order.getTaxAmountCents() / 100.0));
+            taxP.setAlignment(Element.ALIGN_RIGHT);
+            doc.add(taxP);
+            String totalStr = currency.format(order.getTotalAmountCents() / 100.0);
             var totalP = new Paragraph("Total: " + totalStr, FontFactory.getFont(FontFactory.HELVETICA_BOLD, 12));
             totalP.setAlignment(Element.ALIGN_RIGHT);
             doc.add(totalP);
@@ -67,7 +75,7 @@ public final class PdfInvoiceRenderer {
 
             boolean hasQr = false;
             for (CartItem item : order.getItems()) {
-                if (item.ticketQr() == null) {
+                if (item.ticketQrId() == null) {
                     continue;
                 }
                 hasQr = true;
@@ -75,7 +83,7 @@ public final class PdfInvoiceRenderer {
                 if (item.ticketId() != null) {
                     doc.add(new Paragraph("Ticket ID: " + item.ticketId()));
                 }
-                byte[] qrBytes = decodeDataUrl(item.ticketQr());
+                byte[] qrBytes = qrImages.get(item.ticketQrId());
                 if (qrBytes != null) {
                     Image qrImage = Image.getInstance(qrBytes);
                     qrImage.scaleToFit(150, 150);
@@ -95,17 +103,4 @@ public final class PdfInvoiceRenderer {
             throw new IllegalStateException("Failed to render invoice PDF", e);
         }
     }
-
-    private static byte[] decodeDataUrl(String dataUrl) {
-        if (dataUrl == null) {
-            return null;
-        }
-        int commaIdx = dataUrl.indexOf(',');
-        if (commaIdx == -1 || commaIdx + 1 >= dataUrl.length()) {
-            return null;
-        }
-        String base64Part = dataUrl.substring(commaIdx + 1);
-        return Base64.getDecoder().decode(base64Part);
-    }
 }
-
@@ -0,0 +1,119 @@
+package com.ticketchief.orderservice.adapter.output.outbox;
+
+import com.ticketchief.common.messaging.ConfirmedPublisher;
+import com.ticketchief.common.tracing.MessageTracing;
+import com.ticketchief.orderservice.adapter.output.persistence.entity.OutboxEventEntity;
+import com.ticketchief.orderservice.adapter.output.persistence.entity.OutboxJpaRepository;
+import io.micrometer.tracing.Span;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.AbstractJavaTypeMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains the outbox to RabbitMQ. Each batch is locked, sent through the {@link ConfirmedPublisher} on one
+ * channel without waiting per message, confirmed by the broker as a whole and only then deleted, all in one
+ * database transaction: a failed send or a missing confirm rolls back and the batch is retried on the next
+ * run (at-least-once; every message carries its outbox id as message id for consumers that deduplicate).
+ * Each message gets a producer span in the trace that wrote it, from the event's stored traceparent.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxJpaRepository repository;
+    private final ConfirmedPublisher publisher;
+    private final TransactionTemplate transactionTemplate;
+    private final MessageTracing tracing;
+    private final int batchSize;
+    private final long confirmTimeoutMs;
+
+    public OutboxRelay(OutboxJpaRepository repository,
+                       ConfirmedPublisher publisher,
+                       TransactionTemplate transactionTemplate,
+                       MessageTracing tracing,
+                       @Value("${app.outbox.relay.batch-size:100}") int batchSize,
+                       @Value("${app.outbox.relay.confirm-timeout-ms:5000}") long confirmTimeoutMs) {
+        this.repository = repository;
+        this.publisher = publisher;
+        this.transactionTemplate = transactionTemplate;
+        this.tracing = tracing;
+        this.batchSize = batchSize;
+        this.confirmTimeoutMs = confirmTimeoutMs;
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.relay.poll-interval-ms:100}")
+    public void drain() {
+        try {
+            // keep going while batches come back full, so a backlog is not throttled by the poll interval
+            while (relayBatch() == batchSize) {
+                log.debug("Outbox batch of {} relayed, continuing", batchSize);
+            }
+        } catch (Exception e) {
+            log.warn("Outbox relay failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Publishes and removes the next batch; returns the number of messages relayed.
+     */
+    public int relayBatch() {
+        Integer relayed = transactionTemplate.execute(status -> {
+            List<OutboxEventEntity> batch = repository.lockNextBatch(PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            List<ConfirmedPublisher.Outgoing> messages = new ArrayList<>(batch.size());
+            List<Span> spans = new ArrayList<>(batch.size());
+            for (OutboxEventEntity event : batch) {
+                Message message = toMessage(event);
+                Span span = tracing.startProducer("publish " + event.getRoutingKey(), event.getTraceparent(),
+                        event.getCreatedAt() != null ? event.getCreatedAt().toInstant() : null);
+                tracing.inject(span, message.getMessageProperties().getHeaders());
+                spans.add(span);
+                messages.add(new ConfirmedPublisher.Outgoing(event.getExchange(), event.getRoutingKey(), message));
+            }
+            try {
+                // throws on a nack or timeout, which rolls back and leaves the batch for the next run
+                publisher.publishAll(messages).orTimeout(confirmTimeoutMs, TimeUnit.MILLISECONDS).join();
+            } catch (RuntimeException e) {
+                spans.forEach(span -> span.error(e).end());
+                throw e;
+            }
+            spans.forEach(Span::end);
+            repository.deleteAllInBatch(batch);
+            return batch.size();
+        });
+        return relayed == null ? 0 : relayed;
+    }
+
+    private static Message toMessage(OutboxEventEntity event) {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        properties.setContentEncoding(StandardCharsets.UTF_8.name());
+        properties.setDeliveryMode(MessageDeliveryMode.PERSISTENT);
+        properties.setMessageId("outbox-" + event.getId());
+        // listener lag then includes the time the event waited in the outbox
+        if (event.getCreatedAt() != null) {
+            properties.setTimestamp(Date.from(event.getCreatedAt().toInstant()));
+        }
+        if (event.getTypeId() != null) {
+            properties.setHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME, event.getTypeId());
+        }
+        return new Message(event.getPayload().getBytes(StandardCharsets.UTF_8), properties);
+    }
+}
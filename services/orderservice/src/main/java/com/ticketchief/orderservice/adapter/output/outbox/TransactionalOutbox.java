@@ -0,0 +1,41 @@
+package com.ticketchief.orderservice.adapter.output.outbox;
+
+import com.ticketchief.common.tracing.MessageTracing;
+import com.ticketchief.orderservice.adapter.output.persistence.entity.OutboxEventEntity;
+import com.ticketchief.orderservice.adapter.output.persistence.entity.OutboxJpaRepository;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.AbstractJavaTypeMapper;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Records outgoing events in the outbox table instead of sending them to the broker. The row joins the
+ * caller's transaction, so an event exists exactly when the state change it describes was committed;
+ * {@link OutboxRelay} publishes it afterwards, continuing the trace that was current when it was written.
+ */
+@Component
+public class TransactionalOutbox {
+
+    private final OutboxJpaRepository repository;
+    private final Jackson2JsonMessageConverter converter;
+    private final MessageTracing tracing;
+
+    public TransactionalOutbox(OutboxJpaRepository repository, Jackson2JsonMessageConverter converter, MessageTracing tracing) {
+        this.repository = repository;
+        this.converter = converter;
+        this.tracing = tracing;
+    }
+
+    @Transactional
+    public void enqueue(String exchange, String routingKey, Object event) {
+        // convert now, with the same converter the RabbitTemplate uses, so the relay only copies bytes
+        Message message = converter.toMessage(event, new MessageProperties());
+        String typeId = message.getMessageProperties().getHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME);
+        repository.save(new OutboxEventEntity(exchange, routingKey, typeId, new String(message.getBody(), StandardCharsets.UTF_8),
+                tracing.currentTraceparent()));
+    }
+}
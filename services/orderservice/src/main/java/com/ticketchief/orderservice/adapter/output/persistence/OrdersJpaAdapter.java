@@ -1,27 +1,58 @@
 package com.ticketchief.orderservice.adapter.output.persistence;
 
+import com.ticketchief.orderservice.adapter.output.persistence.entity.CartItemEntity;
+import com.ticketchief.orderservice.adapter.output.persistence.entity.CartItemJpaRepository;
 import com.ticketchief.orderservice.adapter.output.persistence.entity.OrderEntity;
+import com.ticketchief.orderservice.adapter.output.persistence.entity.OrderItemRow;
 import com.ticketchief.orderservice.adapter.output.persistence.entity.OrderJpaRepository;
+import com.ticketchief.orderservice.adapter.output.persistence.entity.OrderSummaryRow;
+import com.ticketchief.orderservice.adapter.output.persistence.entity.PaymentAttemptEntity;
+import com.ticketchief.orderservice.adapter.output.persistence.entity.PaymentAttemptJpaRepository;
+import com.ticketchief.orderservice.domain.CartItem;
 import com.ticketchief.orderservice.domain.Order;
+import com.ticketchief.orderservice.domain.OrderQuery;
+import com.ticketchief.orderservice.domain.OrderSummary;
+import com.ticketchief.orderservice.domain.PaymentAttempt;
+import com.ticketchief.orderservice.domain.TicketQr;
 import com.ticketchief.orderservice.port.output.OrdersRepositoryPort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 @Component
 public class OrdersJpaAdapter implements OrdersRepositoryPort {
     private final OrderJpaRepository orderJpaRepository;
+    private final CartItemJpaRepository cartItemJpaRepository;
+    private final PaymentAttemptJpaRepository paymentAttemptJpaRepository;
 
-    public OrdersJpaAdapter(OrderJpaRepository orderJpaRepository) {
+    public OrdersJpaAdapter(OrderJpaRepository orderJpaRepository, CartItemJpaRepository cartItemJpaRepository,
+                            PaymentAttemptJpaRepository paymentAttemptJpaRepository) {
         this.orderJpaRepository = orderJpaRepository;
+        this.cartItemJpaRepository = cartItemJpaRepository;
+        this.paymentAttemptJpaRepository = paymentAttemptJpaRepository;
     }
 
     @Override
     @Transactional(readOnly = true)
     public Order findOrderById(Long orderId) throws RuntimeException {
-        return orderJpaRepository.findById(orderId)
-                .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId)).toDomain();
+        Order order = OrderItemRow.toDomain(orderJpaRepository.findRowsById(orderId));
+        if (order == null) {
+            throw new RuntimeException("Order not found with id: " + orderId);
+        }
+        return order;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<OrderSummary> findOrderSummaries(OrderQuery query, int maxResults) {
+        return orderJpaRepository.findSummaries(query, maxResults).stream().map(OrderSummaryRow::toDomain).toList();
     }
 
     @Override
@@ -38,4 +69,118 @@ public class OrdersJpaAdapter implements OrdersRepositoryPort {
     public void deleteById(Long orderId) {
         orderJpaRepository.deleteById(orderId);
     }
+
+    @Override
+    @Transactional
+    public CartItem appendItem(Order order, CartItem item) {
+        advanceVersionWithTotals(order);
+        CartItemEntity entity = CartItemEntity.fromDomain(item);
+        // always INSERT: a client-supplied id must not turn this into a merge of another row
+        entity.setId(null);
+        // proxy only sets the FK, so the order row and its items are never loaded
+        entity.setOrder(orderJpaRepository.getReferenceById(order.getId()));
+        return cartItemJpaRepository.save(entity).toDomain();
+    }
+
+    @Override
+    @Transactional
+    public boolean removeItem(Order order, Long itemId) {
+        if (cartItemJpaRepository.deleteByIdAndOrderId(itemId, order.getId()) == 0) {
+            return false;
+        }
+        advanceVersionWithTotals(order);
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public List<CartItem> applyCartChange(Order order, List<CartItem> added, List<Long> removedItemIds) {
+        advanceVersionWithTotals(order);
+        if (!removedItemIds.isEmpty()) {
+            cartItemJpaRepository.deleteByIdInAndOrderId(removedItemIds, order.getId());
+        }
+        OrderEntity reference = orderJpaRepository.getReferenceById(order.getId());
+        List<CartItemEntity> entities = new ArrayList<>(added.size());
+        for (CartItem item : added) {
+            CartItemEntity entity = CartItemEntity.fromDomain(item);
+            entity.setId(null);
+            entity.setOrder(reference);
+            entities.add(entity);
+        }
+        return cartItemJpaRepository.saveAll(entities).stream().map(CartItemEntity::toDomain).toList();
+    }
+
+    @Override
+    @Transactional
+    public int updateItemTickets(Order order, List<CartItem> items, Map<String, byte[]> qrImagesById) {
+        int updated = 0;
+        for (CartItem item : items) {
+            updated += cartItemJpaRepository.updateTicket(item.id(), order.getId(), toUuid(item.ticketId()),
+                    item.ticketQrId(), qrImagesById.get(item.ticketQrId()));
+        }
+        if (updated > 0) {
+            advanceVersion(order);
+        }
+        return updated;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TicketQr findTicketQr(Long orderId, Long itemId) {
+        return cartItemJpaRepository.findTicketQr(itemId, orderId).orElse(null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, byte[]> findTicketQrImages(Long orderId) {
+        Map<String, byte[]> images = new HashMap<>();
+        for (TicketQr qr : cartItemJpaRepository.findTicketQrs(orderId)) {
+            images.put(qr.id(), qr.png());
+        }
+        return images;
+    }
+
+    @Override
+    @Transactional
+    public PaymentAttempt savePaymentAttempt(PaymentAttempt attempt) {
+        PaymentAttemptEntity entity = paymentAttemptJpaRepository.findById(attempt.correlationId()).orElse(null);
+        if (entity == null) {
+            return paymentAttemptJpaRepository.save(PaymentAttemptEntity.fromDomain(attempt)).toDomain();
+        }
+        // managed, written on commit
+        entity.settle(attempt.status(), attempt.reason());
+        return entity.toDomain();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PaymentAttempt findPaymentAttempt(String correlationId) {
+        return paymentAttemptJpaRepository.findById(correlationId).map(PaymentAttemptEntity::toDomain).orElse(null);
+    }
+
+    // The item rows are written directly, so the order's version is bumped by hand; a concurrent
+    // writer that read the same version loses here and its transaction is rolled back.
+    private void advanceVersion(Order order) {
+        if (orderJpaRepository.advanceVersion(order.getId(), order.getVersion()) == 0) {
+            throw new ObjectOptimisticLockingFailureException(OrderEntity.class, order.getId());
+        }
+        order.setVersion(order.getVersion() + 1);
+    }
+
+    // For cart edits: the order's total and tax were updated in memory along with its items
+    private void advanceVersionWithTotals(Order order) {
+        if (orderJpaRepository.advanceVersionWithTotals(order.getId(), order.getVersion(),
+                order.getTotalAmountCents(), order.getTaxAmountCents()) == 0) {
+            throw new ObjectOptimisticLockingFailureException(OrderEntity.class, order.getId());
+        }
+        order.setVersion(order.getVersion() + 1);
+    }
+
+    private static UUID toUuid(String value) {
+        try {
+            return value == null ? null : UUID.fromString(value);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
 }
@@ -12,8 +12,10 @@ import java.util.UUID;
 @Entity
 @Table(name = "order_items")
 public class CartItemEntity {
+    // ids are drawn from a pooled sequence rather than IDENTITY so Hibernate can batch the inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_id_seq_gen")
+    @SequenceGenerator(name = "order_items_id_seq_gen", sequenceName = "order_items_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "event_id")
@@ -28,8 +30,14 @@ public class CartItemEntity {
     @Column(name = "ticket_id")
     private UUID ticketId;
 
-    @Column(length = 4096)
-    private String ticketQr;
+    @Column(name = "ticket_qr_id", length = 64)
+    private String ticketQrId;
+
+    // Written only by CartItemJpaRepository.updateTicket and read only by the QR queries, so merging an
+    // order (which never carries the image) leaves it alone and order reads never load it
+    @Column(name = "ticket_qr_png", length = 1 << 20, insertable = false, updatable = false)
+    @Basic(fetch = FetchType.LAZY)
+    private byte[] ticketQrPng;
 
     @Column(name = "reservation_id")
     private UUID reservationId;
@@ -53,7 +61,7 @@ public class CartItemEntity {
         } catch (IllegalArgumentException ex) {
             e.setTicketId((String) null);
         }
-        e.setTicketQr(cartItem.ticketQr());
+        e.setTicketQrId(cartItem.ticketQrId());
         try {
             e.setReservationId(cartItem.reservationId() == null ? null : UUID.fromString(cartItem.reservationId()));
         } catch (IllegalArgumentException ex) {
@@ -94,11 +102,11 @@ public class CartItemEntity {
         }
     }
 
-    public void setTicketQr(String ticketQr) {
-        this.ticketQr = ticketQr;
+    public void setTicketQrId(String ticketQrId) {
+        this.ticketQrId = ticketQrId;
     }
 
     public CartItem toDomain() {
-        return new CartItem(id, eventId == null ? null : eventId.toString(), seatId, unitPriceCents, reservationId == null ? null : reservationId.toString(), ticketId == null ? null : ticketId.toString(), ticketQr);
+        return new CartItem(id, eventId == null ? null : eventId.toString(), seatId, unitPriceCents, reservationId == null ? null : reservationId.toString(), ticketId == null ? null : ticketId.toString(), ticketQrId);
     }
 }
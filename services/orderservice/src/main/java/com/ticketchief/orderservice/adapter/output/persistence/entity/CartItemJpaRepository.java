@@ -0,0 +1,41 @@
+package com.ticketchief.orderservice.adapter.output.persistence.entity;
+
+import com.ticketchief.orderservice.domain.TicketQr;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface CartItemJpaRepository extends JpaRepository<CartItemEntity, Long> {
+
+    @Modifying
+    @Query("delete from CartItemEntity i where i.id = :itemId and i.order.id = :orderId")
+    int deleteByIdAndOrderId(@Param("itemId") Long itemId, @Param("orderId") Long orderId);
+
+    @Modifying
+    @Query("delete from CartItemEntity i where i.id in :itemIds and i.order.id = :orderId")
+    int deleteByIdInAndOrderId(@Param("itemIds") List<Long> itemIds, @Param("orderId") Long orderId);
+
+    @Modifying
+    @Query("""
+            update CartItemEntity i set i.ticketId = :ticketId, i.ticketQrId = :qrId, i.ticketQrPng = :qrPng
+            where i.id = :itemId and i.order.id = :orderId""")
+    int updateTicket(@Param("itemId") Long itemId, @Param("orderId") Long orderId, @Param("ticketId") UUID ticketId,
+                     @Param("qrId") String qrId, @Param("qrPng") byte[] qrPng);
+
+    @Query("""
+            select new com.ticketchief.orderservice.domain.TicketQr(i.ticketQrId, i.ticketQrPng)
+            from CartItemEntity i where i.id = :itemId and i.order.id = :orderId and i.ticketQrPng is not null""")
+    Optional<TicketQr> findTicketQr(@Param("itemId") Long itemId, @Param("orderId") Long orderId);
+
+    @Query("""
+            select new com.ticketchief.orderservice.domain.TicketQr(i.ticketQrId, i.ticketQrPng)
+            from CartItemEntity i where i.order.id = :orderId and i.ticketQrPng is not null""")
+    List<TicketQr> findTicketQrs(@Param("orderId") Long orderId);
+}
@@ -13,9 +13,10 @@ import java.util.stream.Collectors;
 @Entity
 @Table(name = "orders")
 public class OrderEntity {
+    // pooled: one sequence call hands out 50 ids; the sequence must be INCREMENT BY 50 (see init.sql)
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_id_seq_gen")
-    @SequenceGenerator(name = "orders_id_seq_gen", sequenceName = "orders_id_seq", allocationSize = 1)
+    @SequenceGenerator(name = "orders_id_seq_gen", sequenceName = "orders_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "user_id")
@@ -46,6 +47,10 @@ public class OrderEntity {
     @Column(name = "updated_at")
     private OffsetDateTime updatedAt;
 
+    @Version
+    @Column(name = "version")
+    private long version;
+
 
     public void setId(Long id) {
         this.id = id;
@@ -88,6 +93,10 @@ public class OrderEntity {
         this.updatedAt = updatedAt;
     }
 
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public static OrderEntity fromDomain(Order order) {
         var entity = new OrderEntity();
         entity.setId(order.getId());
@@ -103,6 +112,7 @@ public class OrderEntity {
         entity.setCurrency(order.getCurrency());
         entity.setCreatedAt(order.getCreatedAt() == null ? null : order.getCreatedAt());
         entity.setUpdatedAt(order.getUpdatedAt() == null ? null : order.getUpdatedAt());
+        entity.setVersion(order.getVersion());
         var items = order.getItems().stream().map(CartItemEntity::fromDomain).toList();
         // set back-reference so JPA will populate the order_id FK correctly
         items.forEach(i -> i.setOrder(entity));
@@ -111,7 +121,7 @@ public class OrderEntity {
     }
 
     public Order toDomain() {
-        return new Order(
+        Order order = new Order(
             id, userId == null ? null : userId.toString(), userEmail,
             items.stream().map(CartItemEntity::toDomain).collect(Collectors.toCollection(ArrayList::new)),
             status,
@@ -121,5 +131,7 @@ public class OrderEntity {
             createdAt,
             updatedAt
         );
+        order.setVersion(version);
+        return order;
     }
 }
@@ -0,0 +1,71 @@
+package com.ticketchief.orderservice.adapter.output.persistence.entity;
+
+import com.ticketchief.orderservice.domain.CartItem;
+import com.ticketchief.orderservice.domain.Order;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Flat read-only projection of one orders row joined with one of its order_items rows.
+ * Item columns are null for an order without items (left join).
+ */
+public record OrderItemRow(
+        Long orderId,
+        UUID userId,
+        String userEmail,
+        Order.Status status,
+        long totalAmountCents,
+        long taxAmountCents,
+        String currency,
+        OffsetDateTime createdAt,
+        OffsetDateTime updatedAt,
+        long version,
+        Long itemId,
+        UUID eventId,
+        String seatId,
+        Long unitPriceCents,
+        UUID ticketId,
+        String ticketQrId,
+        UUID reservationId
+) {
+
+    /**
+     * Assembles the aggregate from the joined rows of a single order; returns null for an empty result.
+     */
+    public static Order toDomain(List<OrderItemRow> rows) {
+        if (rows.isEmpty()) {
+            return null;
+        }
+        List<CartItem> items = new ArrayList<>(rows.size());
+        for (OrderItemRow row : rows) {
+            if (row.itemId() != null) {
+                items.add(row.toCartItem());
+            }
+        }
+        OrderItemRow head = rows.get(0);
+        Order order = new Order(
+                head.orderId(), toString(head.userId()), head.userEmail(),
+                items,
+                head.status(),
+                head.totalAmountCents(),
+                head.taxAmountCents(),
+                head.currency(),
+                head.createdAt(),
+                head.updatedAt()
+        );
+        order.setVersion(head.version());
+        return order;
+    }
+
+    private CartItem toCartItem() {
+        return new CartItem(itemId, toString(eventId), seatId, unitPriceCents == null ? 0L : unitPriceCents,
+                toString(reservationId), toString(ticketId), ticketQrId);
+    }
+
+    private static String toString(UUID value) {
+        return value == null ? null : value.toString();
+    }
+}
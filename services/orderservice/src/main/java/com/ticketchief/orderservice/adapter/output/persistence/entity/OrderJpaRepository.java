@@ -1,8 +1,40 @@
 package com.ticketchief.orderservice.adapter.output.persistence.entity;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
-public interface OrderJpaRepository extends JpaRepository<OrderEntity, Long> {
+public interface OrderJpaRepository extends JpaRepository<OrderEntity, Long>, OrderSummaryQueries {
+
+    // Loads the order and all its items in one round trip as plain DTOs (no managed entities).
+    @Query("""
+            select new com.ticketchief.orderservice.adapter.output.persistence.entity.OrderItemRow(
+                o.id, o.userId, o.userEmail, o.status, o.totalAmountCents, o.taxAmountCents, o.currency,
+                o.createdAt, o.updatedAt, o.version,
+                i.id, i.eventId, i.seatId, i.unitPriceCents, i.ticketId, i.ticketQrId, i.reservationId)
+            from OrderEntity o left join o.items i
+            where o.id = :orderId
+            order by i.id
+            """)
+    List<OrderItemRow> findRowsById(@Param("orderId") Long orderId);
+
+    // Compare-and-set on the version column; 0 means the order changed (or vanished) since it was read.
+    @Modifying
+    @Query("update OrderEntity o set o.version = o.version + 1 where o.id = :orderId and o.version = :version")
+    int advanceVersion(@Param("orderId") Long orderId, @Param("version") long version);
+
+    // Same compare-and-set, also storing the figures recomputed by the item change it guards
+    @Modifying
+    @Query("""
+            update OrderEntity o
+               set o.version = o.version + 1, o.totalAmountCents = :totalAmountCents, o.taxAmountCents = :taxAmountCents
+             where o.id = :orderId and o.version = :version
+            """)
+    int advanceVersionWithTotals(@Param("orderId") Long orderId, @Param("version") long version,
+                                 @Param("totalAmountCents") long totalAmountCents, @Param("taxAmountCents") long taxAmountCents);
 }
@@ -0,0 +1,11 @@
+package com.ticketchief.orderservice.adapter.output.persistence.entity;
+
+import com.ticketchief.orderservice.domain.OrderQuery;
+
+import java.util.List;
+
+// Listing queries whose predicates depend on which filters are set (implemented by OrderSummaryQueriesImpl)
+public interface OrderSummaryQueries {
+
+    List<OrderSummaryRow> findSummaries(OrderQuery query, int maxResults);
+}
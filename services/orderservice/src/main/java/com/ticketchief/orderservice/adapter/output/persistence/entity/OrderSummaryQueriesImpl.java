@@ -0,0 +1,66 @@
+package com.ticketchief.orderservice.adapter.output.persistence.entity;
+
+import com.ticketchief.orderservice.domain.OrderQuery;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Builds the listing query from the filters that are actually set, so each variant matches one of the
+ * (user_id | status, created_at, id) indexes instead of a catch-all "param is null or ..." predicate
+ * the planner cannot use an index for.
+ */
+class OrderSummaryQueriesImpl implements OrderSummaryQueries {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<OrderSummaryRow> findSummaries(OrderQuery query, int maxResults) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<OrderSummaryRow> cq = cb.createQuery(OrderSummaryRow.class);
+        Root<OrderEntity> o = cq.from(OrderEntity.class);
+
+        Subquery<Long> itemCount = cq.subquery(Long.class);
+        Root<CartItemEntity> i = itemCount.from(CartItemEntity.class);
+        itemCount.select(cb.count(i)).where(cb.equal(i.get("order"), o));
+
+        List<Predicate> where = new ArrayList<>();
+        if (query.userId() != null) {
+            where.add(cb.equal(o.get("userId"), UUID.fromString(query.userId())));
+        }
+        if (query.status() != null) {
+            where.add(cb.equal(o.get("status"), query.status()));
+        }
+        if (query.createdFrom() != null) {
+            where.add(cb.greaterThanOrEqualTo(o.get("createdAt"), query.createdFrom()));
+        }
+        if (query.createdTo() != null) {
+            where.add(cb.lessThan(o.get("createdAt"), query.createdTo()));
+        }
+        if (query.after() != null) {
+            // (created_at, id) < (cursor): the first term bounds the index scan, the second only
+            // breaks ties between orders created in the same microsecond
+            OffsetDateTime createdAt = query.after().createdAt();
+            where.add(cb.lessThanOrEqualTo(o.get("createdAt"), createdAt));
+            where.add(cb.or(cb.lessThan(o.get("createdAt"), createdAt), cb.lessThan(o.get("id"), query.after().id())));
+        }
+
+        cq.select(cb.construct(OrderSummaryRow.class,
+                        o.get("id"), o.get("userId"), o.get("status"), itemCount,
+                        o.get("totalAmountCents"), o.get("taxAmountCents"), o.get("currency"),
+                        o.get("createdAt"), o.get("updatedAt")))
+                .where(where.toArray(Predicate[]::new))
+                .orderBy(cb.desc(o.get("createdAt")), cb.desc(o.get("id")));
+        return entityManager.createQuery(cq).setMaxResults(maxResults).getResultList();
+    }
+}
@@ -0,0 +1,28 @@
+package com.ticketchief.orderservice.adapter.output.persistence.entity;
+
+import com.ticketchief.orderservice.domain.Order;
+import com.ticketchief.orderservice.domain.OrderSummary;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Read-only projection of one orders row plus its item count, for listings.
+ */
+public record OrderSummaryRow(
+        Long orderId,
+        UUID userId,
+        Order.Status status,
+        Long itemCount,
+        long totalAmountCents,
+        long taxAmountCents,
+        String currency,
+        OffsetDateTime createdAt,
+        OffsetDateTime updatedAt
+) {
+
+    public OrderSummary toDomain() {
+        return new OrderSummary(orderId, userId == null ? null : userId.toString(), status,
+                itemCount == null ? 0L : itemCount, totalAmountCents, taxAmountCents, currency, createdAt, updatedAt);
+    }
+}
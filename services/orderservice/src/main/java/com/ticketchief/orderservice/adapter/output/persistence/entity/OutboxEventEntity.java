@@ -0,0 +1,77 @@
+package com.ticketchief.orderservice.adapter.output.persistence.entity;
+
+import jakarta.persistence.*;
+
+import java.time.OffsetDateTime;
+
+/**
+ * A message waiting to be published, written in the same transaction as the state change it announces.
+ * The payload is the already converted JSON body, so the relay sends exactly what the publisher produced.
+ */
+@Entity
+@Table(name = "outbox_events")
+public class OutboxEventEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "exchange", nullable = false)
+    private String exchange;
+
+    @Column(name = "routing_key", nullable = false)
+    private String routingKey;
+
+    // value of the __TypeId__ header set by the JSON message converter
+    @Column(name = "type_id")
+    private String typeId;
+
+    @Column(name = "payload", nullable = false, columnDefinition = "text")
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt;
+
+    // W3C traceparent of the span that wrote the event, null outside a trace
+    @Column(name = "traceparent")
+    private String traceparent;
+
+    protected OutboxEventEntity() {
+    }
+
+    public OutboxEventEntity(String exchange, String routingKey, String typeId, String payload, String traceparent) {
+        this.exchange = exchange;
+        this.routingKey = routingKey;
+        this.typeId = typeId;
+        this.payload = payload;
+        this.traceparent = traceparent;
+        this.createdAt = OffsetDateTime.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getExchange() {
+        return exchange;
+    }
+
+    public String getRoutingKey() {
+        return routingKey;
+    }
+
+    public String getTypeId() {
+        return typeId;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public OffsetDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public String getTraceparent() {
+        return traceparent;
+    }
+}
@@ -0,0 +1,22 @@
+package com.ticketchief.orderservice.adapter.output.persistence.entity;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OutboxJpaRepository extends JpaRepository<OutboxEventEntity, Long> {
+
+    // oldest first; rows held by another relay are skipped (lock timeout -2 = SKIP LOCKED) instead of waited on
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select e from OutboxEventEntity e order by e.id")
+    List<OutboxEventEntity> lockNextBatch(Pageable page);
+}
@@ -0,0 +1,60 @@
+package com.ticketchief.orderservice.adapter.output.persistence.entity;
+
+import com.ticketchief.common.events.PaymentProcessedEvent.PaymentStatus;
+import com.ticketchief.orderservice.domain.PaymentAttempt;
+import jakarta.persistence.*;
+
+import java.time.OffsetDateTime;
+
+/**
+ * A payment requested for an order and, once applied, its final outcome. Not tied to the order row by a
+ * foreign key because a failed payment deletes the order while its outcome must stay readable.
+ */
+@Entity
+@Table(name = "order_payments")
+public class PaymentAttemptEntity {
+    @Id
+    @Column(name = "correlation_id", length = 64)
+    private String correlationId;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    // null while the payment is pending
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 16)
+    private PaymentStatus status;
+
+    @Column(name = "reason")
+    private String reason;
+
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt;
+
+    protected PaymentAttemptEntity() {
+    }
+
+    public static PaymentAttemptEntity fromDomain(PaymentAttempt attempt) {
+        PaymentAttemptEntity entity = new PaymentAttemptEntity();
+        entity.correlationId = attempt.correlationId();
+        entity.orderId = attempt.orderId();
+        entity.status = attempt.status();
+        entity.reason = attempt.reason();
+        entity.createdAt = OffsetDateTime.now();
+        entity.updatedAt = entity.createdAt;
+        return entity;
+    }
+
+    public PaymentAttempt toDomain() {
+        return new PaymentAttempt(correlationId, orderId, status, reason);
+    }
+
+    public void settle(PaymentStatus status, String reason) {
+        this.status = status;
+        this.reason = reason;
+        this.updatedAt = OffsetDateTime.now();
+    }
+}
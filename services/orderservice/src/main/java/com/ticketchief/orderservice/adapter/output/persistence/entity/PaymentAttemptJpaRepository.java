@@ -0,0 +1,8 @@
+package com.ticketchief.orderservice.adapter.output.persistence.entity;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PaymentAttemptJpaRepository extends JpaRepository<PaymentAttemptEntity, String> {
+}
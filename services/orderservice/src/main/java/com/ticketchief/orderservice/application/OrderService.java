@@ -3,33 +3,61 @@ package com.ticketchief.orderservice.application;
 import com.ticketchief.common.events.PaymentProcessedEvent;
 import com.ticketchief.common.events.PaymentProcessedEvent.PaymentStatus;
 import com.ticketchief.common.events.TicketCreatedEvent;
+import com.ticketchief.orderservice.domain.CartChange;
+import com.ticketchief.orderservice.domain.CartChangeResult;
+import com.ticketchief.orderservice.domain.CartChangeResult.ItemOutcome;
+import com.ticketchief.orderservice.domain.CartChangeResult.Outcome;
 import com.ticketchief.orderservice.domain.CartItem;
 import com.ticketchief.orderservice.domain.Order;
 import com.ticketchief.orderservice.domain.Order.Status;
+import com.ticketchief.orderservice.domain.OrderPage;
+import com.ticketchief.orderservice.domain.OrderQuery;
+import com.ticketchief.orderservice.domain.OrderSummary;
+import com.ticketchief.orderservice.domain.PaymentAttempt;
+import com.ticketchief.orderservice.domain.TaxRule;
+import com.ticketchief.orderservice.domain.TicketQr;
 import com.ticketchief.orderservice.port.input.OrderServicePort;
 import com.ticketchief.orderservice.port.input.OrderPaymentServicePort;
+import com.ticketchief.orderservice.port.output.OrderCachePort;
 import com.ticketchief.orderservice.port.output.OrdersRepositoryPort;
 import com.ticketchief.orderservice.port.output.PublishEmailRequestedPort;
 import com.ticketchief.orderservice.port.output.PublishPaymentRequestedPort;
 import com.ticketchief.orderservice.port.output.PublishPaymentValidatedPort;
 import com.ticketchief.orderservice.port.output.PublishReservationReleasePort;
 import com.ticketchief.orderservice.port.output.InvoicePort;
+import com.ticketchief.orderservice.port.output.RequestInvoicePort;
 
 import jakarta.transaction.Transactional;
+import org.springframework.amqp.AmqpException;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -43,84 +71,209 @@ public class OrderService implements OrderServicePort, OrderPaymentServicePort {
     private final PublishPaymentValidatedPort paymentValidatedPublisher;
     private final InvoicePort invoiceAdapter;
     private final PublishReservationReleasePort reservationReleasePublisher;
+    private final RequestInvoicePort invoiceRequestPublisher;
+    private final TransactionOperations transactions;
+    private final OrderCachePort orderCache;
+    private final TaxRule taxRule;
 
     @Value("${app.invoice.storage-dir}")
     private String storageDir;
 
+    // Listener-driven updates that lose an optimistic-lock race are re-run on fresh state this many times
+    @Value("${app.orders.conflict-retry.max-attempts:5}")
+    private int conflictRetryAttempts = 5;
+
+    @Value("${app.orders.conflict-retry.backoff-ms:20}")
+    private long conflictRetryBackoffMs = 20;
+
     public OrderService(OrdersRepositoryPort ordersJpaAdapter,
                         PublishPaymentRequestedPort paymentPublisher,
                         PublishEmailRequestedPort emailPublisher,
                         PublishPaymentValidatedPort paymentValidatedPublisher,
                         InvoicePort invoiceAdapter,
-                        PublishReservationReleasePort reservationReleasePublisher) {
+                        PublishReservationReleasePort reservationReleasePublisher,
+                        RequestInvoicePort invoiceRequestPublisher,
+                        TransactionOperations transactions,
+                        OrderCachePort orderCache,
+                        TaxRule taxRule) {
         this.ordersJpaAdapter = ordersJpaAdapter;
         this.paymentPublisher = paymentPublisher;
         this.emailPublisher = emailPublisher;
         this.paymentValidatedPublisher = paymentValidatedPublisher;
         this.invoiceAdapter = invoiceAdapter;
         this.reservationReleasePublisher = reservationReleasePublisher;
+        this.invoiceRequestPublisher = invoiceRequestPublisher;
+        this.transactions = transactions;
+        this.orderCache = orderCache;
+        this.taxRule = taxRule;
     }
 
     @Override
     public Order placeOrder(Order order) {
+        // figures sent by the client are never trusted
+        order.recalculateTotals(taxRule);
         return ordersJpaAdapter.save(order);
     }
 
     @Override
     public Order addItem(Long orderId, CartItem item) {
         Order order = ordersJpaAdapter.findOrderById(orderId);
-        order.addItem(item);
-        return ordersJpaAdapter.save(order);
+        order.addItem(item, taxRule);
+        CartItem persisted = ordersJpaAdapter.appendItem(order, item);
+        orderCache.evict(orderId);
+        order.replaceItem(item, persisted);
+        return order;
     }
 
     @Override
     public void deleteItem(Long orderId, Long itemId) {
         Order order = ordersJpaAdapter.findOrderById(orderId);
-        boolean removed = order.deleteItem(itemId);
+        boolean removed = order.deleteItem(itemId, taxRule);
         if (removed) {
-            ordersJpaAdapter.save(order);
+            ordersJpaAdapter.removeItem(order, itemId);
+            orderCache.evict(orderId);
+        }
+    }
+
+    /**
+     * Applies many cart edits with one load of the order, one transaction and one version bump, e.g. a
+     * group booking. Each entry is validated on its own; rejected ones are reported and skipped while
+     * the rest are applied.
+     */
+    @Override
+    public CartChangeResult changeItems(Long orderId, CartChange change) {
+        Order order = ordersJpaAdapter.findOrderById(orderId);
+        if (order.getStatus() != Status.IN_CART) {
+            throw new IllegalStateException("Cannot change items unless order is IN_CART");
+        }
+
+        List<ItemOutcome> removed = new ArrayList<>(change.remove().size());
+        List<Long> removedIds = new ArrayList<>();
+        for (Long itemId : change.remove()) {
+            CartItem item = order.getItems().stream().filter(i -> Objects.equals(i.id(), itemId)).findFirst().orElse(null);
+            if (item != null) {
+                order.deleteItem(itemId, taxRule);
+                removedIds.add(itemId);
+                removed.add(new ItemOutcome(itemId, item.eventId(), item.seatId(), Outcome.REMOVED));
+            } else {
+                removed.add(new ItemOutcome(itemId, null, null, Outcome.NOT_FOUND));
+            }
+        }
+
+        List<Outcome> addOutcomes = new ArrayList<>(change.add().size());
+        List<CartItem> accepted = new ArrayList<>();
+        for (CartItem item : change.add()) {
+            Outcome outcome = validateNewItem(order, item);
+            if (outcome == Outcome.ADDED) {
+                order.addItem(item, taxRule);
+                accepted.add(item);
+            }
+            addOutcomes.add(outcome);
+        }
+
+        if (!removedIds.isEmpty() || !accepted.isEmpty()) {
+            List<CartItem> persisted = ordersJpaAdapter.applyCartChange(order, accepted, removedIds);
+            orderCache.evict(orderId);
+            for (int i = 0; i < accepted.size(); i++) {
+                order.replaceItem(accepted.get(i), persisted.get(i));
+            }
+        }
+
+        List<ItemOutcome> added = new ArrayList<>(addOutcomes.size());
+        for (int i = 0; i < addOutcomes.size(); i++) {
+            CartItem requested = change.add().get(i);
+            if (requested == null) {
+                added.add(new ItemOutcome(null, null, null, addOutcomes.get(i)));
+                continue;
+            }
+            Long itemId = addOutcomes.get(i) == Outcome.ADDED ? order.findItemBySeat(requested.eventId(), requested.seatId()).id() : null;
+            added.add(new ItemOutcome(itemId, requested.eventId(), requested.seatId(), addOutcomes.get(i)));
         }
+        return new CartChangeResult(order, added, removed);
+    }
+
+    private static Outcome validateNewItem(Order order, CartItem item) {
+        if (item == null || item.eventId() == null || item.seatId() == null || item.unitPriceCents() < 0) {
+            return Outcome.INVALID;
+        }
+        // also catches a seat listed twice in the same request, the first one having been added already
+        return order.findItemBySeat(item.eventId(), item.seatId()) == null ? Outcome.ADDED : Outcome.DUPLICATE_SEAT;
     }
 
     @Override
     public Order findOrder(Long orderId) {
-        return ordersJpaAdapter.findOrderById(orderId);
+        // polled by clients while tickets are issued; every write below evicts the order
+        return orderCache.get(orderId, ordersJpaAdapter::findOrderById);
     }
 
     @Override
-    public ResponseEntity<byte[]> getInvoice(Long orderId) throws IOException {
-        Order order = ordersJpaAdapter.findOrderById(orderId);
-        Path pdfPath = Paths.get(storageDir).resolve(order.getId() + ".pdf").toAbsolutePath();
-        if (!Files.exists(pdfPath)) {
-            return ResponseEntity.notFound().build();
+    public OrderPage listOrders(OrderQuery query) {
+        // one extra row tells whether another page follows without a count query
+        List<OrderSummary> found = ordersJpaAdapter.findOrderSummaries(query, query.limit() + 1);
+        if (found.size() <= query.limit()) {
+            return new OrderPage(found, null);
         }
+        List<OrderSummary> page = found.subList(0, query.limit());
+        return new OrderPage(page, OrderQuery.Cursor.of(page.get(page.size() - 1)).encode());
+    }
 
-        byte[] pdfBytes = Files.readAllBytes(pdfPath);
+    @Override
+    public ResponseEntity<Resource> getInvoice(Long orderId) throws IOException {
+        // the stored file is the source of truth here, so no order row has to be loaded to serve it
+        Path pdfPath = Paths.get(storageDir).resolve(orderId + ".pdf").toAbsolutePath();
+        if (!Files.isRegularFile(pdfPath)) {
+            return ResponseEntity.notFound().build();
+        }
+        BasicFileAttributes attributes = Files.readAttributes(pdfPath, BasicFileAttributes.class);
+        long lastModified = attributes.lastModifiedTime().toMillis();
 
+        // Streamed from disk by Spring MVC, which also answers Range (206) and
+        // If-None-Match/If-Modified-Since (304) based on the headers set here.
         return ResponseEntity.ok()
                 .contentType(MediaType.APPLICATION_PDF)
-                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + order.getId() + "\"")
-                .body(pdfBytes);
+                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + orderId + "\"")
+                .eTag(Long.toHexString(lastModified) + "-" + Long.toHexString(attributes.size()))
+                .lastModified(lastModified)
+                .body(new FileSystemResource(pdfPath));
+    }
+
+    @Override
+    public ResponseEntity<byte[]> getTicketQr(Long orderId, Long itemId) {
+        TicketQr qr = ordersJpaAdapter.findTicketQr(orderId, itemId);
+        if (qr == null) {
+            return ResponseEntity.notFound().build();
+        }
+        // a ticket's QR never changes once issued and its id is the content hash, so the ETag lets
+        // Spring MVC answer revalidations with 304
+        return ResponseEntity.ok()
+                .contentType(MediaType.IMAGE_PNG)
+                .cacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate().immutable())
+                .eTag(qr.id())
+                .body(qr.png());
     }
 
     @Override
     public void cancelOrder(Long orderId) {
         ordersJpaAdapter.deleteById(orderId);
+        orderCache.evict(orderId);
     }
 
+    @Transactional
     @Override
     public String finalizeOrder(Long orderId) {
-        // publish payment requested and return correlationId so frontend can submit card data to payment service
+        // publish payment requested and return correlationId so frontend can submit card data to payment service;
+        // the status change and the outgoing event commit together
         Order order = ordersJpaAdapter.findOrderById(orderId);
-
-        long amount = order.getItems().stream().mapToLong(CartItem::unitPriceCents).sum();
-        double HST_ONTARIO = 0.14;
-        amount += (long) (amount * HST_ONTARIO);
+        // maintained by addItem/deleteItem, so the stored total is what gets charged
+        long amount = order.getTotalAmountCents();
 
         order.setStatus(Status.PAYMENT_PENDING);
         ordersJpaAdapter.save(order);
+        orderCache.evict(orderId);
 
         String correlationId = UUID.randomUUID().toString();
+        // lets the result endpoint check the correlationId against the order and answer after the outcome is applied
+        ordersJpaAdapter.savePaymentAttempt(PaymentAttempt.pending(correlationId, order.getId()));
         paymentPublisher.publishPaymentRequested(
                 correlationId,
                 order.getId(),
@@ -129,10 +282,25 @@ public class OrderService implements OrderServicePort, OrderPaymentServicePort {
         return correlationId;
     }
 
-    @Transactional
     @Override
     public void onPaymentProcessed(PaymentProcessedEvent event) {
+        retryOnConflict(event.orderId(), () -> applyPaymentProcessed(event));
+    }
+
+    @Override
+    public PaymentAttempt findPaymentAttempt(Long orderId, String correlationId) {
+        PaymentAttempt attempt = ordersJpaAdapter.findPaymentAttempt(correlationId);
+        // a correlationId only answers for the order it was issued for
+        return attempt != null && attempt.orderId().equals(orderId) ? attempt : null;
+    }
+
+    private void applyPaymentProcessed(PaymentProcessedEvent event) {
         Order order = ordersJpaAdapter.findOrderById(event.orderId());
+        // stored with the order change, so the outcome can be read back even after a failure deletes the order
+        if (event.correlationId() != null) {
+            ordersJpaAdapter.savePaymentAttempt(new PaymentAttempt(event.correlationId(), event.orderId(),
+                    event.status(), event.reason()));
+        }
         if (event.status() == PaymentStatus.SUCCESS) {
             // idempotency: if we already marked this order PAID, ignore duplicate SUCCESS events
             if (order.getStatus() == Status.PAID) {
@@ -172,52 +340,152 @@ public class OrderService implements OrderServicePort, OrderPaymentServicePort {
                     .map(CartItem::reservationId)
                     .filter(Objects::nonNull)
                     .collect(Collectors.toSet());
+            // written to the outbox in this transaction, so the releases are sent if and only if the order is deleted
             for (String rid : reservationIds) {
-                try {
-                    reservationReleasePublisher.publishReservationRelease(rid, String.valueOf(order.getId()));
-                } catch (Exception ex) {
-                    log.warn("Failed to publish reservation release for reservationId={}: {}", rid, ex.getMessage());
-                }
+                reservationReleasePublisher.publishReservationRelease(rid, String.valueOf(order.getId()));
             }
             ordersJpaAdapter.deleteById(order.getId());
+            orderCache.evict(order.getId());
             return;
         }
         ordersJpaAdapter.save(order);
+        orderCache.evict(order.getId());
     }
 
     public void onTicketCreated(TicketCreatedEvent event) {
-        if (event.orderId() == null) {
-            return;
-        }
-        Long orderId;
-        try {
-            orderId = Long.valueOf(event.orderId());
-        } catch (NumberFormatException ex) {
-            return;
+        onTicketsCreated(List.of(event));
+    }
+
+    /**
+     * Applies a batch of issued tickets: events are grouped by order so each order is loaded once,
+     * all of its seats are assigned on that single aggregate and the changed items are persisted together.
+     * An order that fails permanently (unknown order, rejected data) is logged and skipped so it cannot hold
+     * back the rest of the batch; a transient failure fails the batch so it is redelivered, which is safe
+     * because assignment is idempotent.
+     */
+    public void onTicketsCreated(List<TicketCreatedEvent> events) {
+        Map<Long, List<TicketCreatedEvent>> eventsByOrder = new LinkedHashMap<>();
+        for (TicketCreatedEvent event : events) {
+            if (event.orderId() == null) {
+                continue;
+            }
+            try {
+                eventsByOrder.computeIfAbsent(Long.valueOf(event.orderId()), id -> new ArrayList<>()).add(event);
+            } catch (NumberFormatException ex) {
+                log.warn("Ignoring TicketCreatedEvent with invalid orderId={}", event.orderId());
+            }
         }
+        eventsByOrder.forEach((orderId, orderEvents) -> {
+            try {
+                // one transaction per order: its tickets and its invoice request commit together
+                retryOnConflict(orderId, () -> assignTickets(orderId, orderEvents));
+            } catch (RuntimeException ex) {
+                // still contended after all retries, database or broker unavailable: redeliver
+                if (isTransient(ex)) {
+                    throw ex;
+                }
+                log.error("Failed to apply {} ticket(s) for orderId={}: {}", orderEvents.size(), orderId, ex.getMessage(), ex);
+            }
+        });
+    }
+
+    private void assignTickets(Long orderId, List<TicketCreatedEvent> events) {
         Order order = ordersJpaAdapter.findOrderById(orderId);
-        boolean updated = order.assignTicket(event.eventId(), event.seat(), event.ticketId(), event.qr());
-        if (!updated) {
+        // keyed by seat so a redelivered event within the same batch is written once
+        Map<Long, CartItem> assigned = new LinkedHashMap<>();
+        Map<String, byte[]> qrImages = new HashMap<>();
+        for (TicketCreatedEvent event : events) {
+            TicketQr qr;
+            try {
+                // decoded once here; the order only keeps the image's id
+                qr = TicketQr.fromDataUrl(event.qr());
+            } catch (IllegalArgumentException ex) {
+                log.warn("Ignoring ticket {} for orderId={}: unreadable QR code", event.ticketId(), orderId);
+                continue;
+            }
+            if (order.assignTicket(event.eventId(), event.seat(), event.ticketId(), qr.id())) {
+                CartItem item = order.findItemBySeat(event.eventId(), event.seat());
+                assigned.put(item.id(), item);
+                qrImages.put(qr.id(), qr.png());
+            }
+        }
+        if (assigned.isEmpty()) {
             return;
         }
-        ordersJpaAdapter.save(order);
+        ordersJpaAdapter.updateItemTickets(order, List.copyOf(assigned.values()), qrImages);
+        orderCache.evict(orderId);
 
         if (order.hasAllTicketsIssued()) {
-            InvoicePort.InvoiceResult result = invoiceAdapter.generateInvoice(order);
-            // Use stored user email (no synchronous user service call)
-            String recipient = order.getUserEmail();
-            if (recipient == null || recipient.isBlank()) {
-                log.warn("No valid email stored for userId={} — cannot send invoice for orderId={}", order.getUserId(), order.getId());
+            // rendering happens on the invoice workers; this listener thread only enqueues the request
+            invoiceRequestPublisher.requestInvoice(orderId);
+        }
+    }
+
+    private static boolean isTransient(Throwable ex) {
+        return ex instanceof TransientDataAccessException
+                || ex instanceof RecoverableDataAccessException
+                || ex instanceof DataAccessResourceFailureException
+                || ex instanceof CannotCreateTransactionException
+                || ex instanceof AmqpException;
+    }
+
+    /**
+     * Runs {@code work} in its own transaction. If it loses a race with another writer of the same
+     * order, the transaction is rolled back and the work starts over on freshly loaded state after a
+     * randomized, growing pause; the conflict is rethrown once the attempts are used up.
+     */
+    private void retryOnConflict(Long orderId, Runnable work) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactions.executeWithoutResult(status -> work.run());
                 return;
+            } catch (ConcurrencyFailureException ex) {
+                if (attempt >= conflictRetryAttempts) {
+                    log.warn("Giving up on orderId={} after {} conflicting attempts", orderId, attempt);
+                    throw ex;
+                }
+                log.debug("Concurrent update of orderId={}, retrying (attempt {})", orderId, attempt + 1);
+                backOff(attempt);
             }
+        }
+    }
 
-            emailPublisher.publishEmailRequest(
-                UUID.randomUUID().toString(),
-                recipient,
-                "Your Invoice",
-                "Thank you for your purchase. Your tickets are attached as QR codes.",
-                result.url()
-            );
+    // Exponential backoff with full jitter, so writers that collided once spread out instead of colliding again
+    private void backOff(int attempt) {
+        long ceiling = conflictRetryBackoffMs << Math.min(attempt, 10);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying a conflicting order update", ex);
         }
     }
+
+    /**
+     * Renders and stores the invoice of a fully ticketed order and asks the notification service to mail it.
+     */
+    public void generateInvoice(Long orderId) {
+        Order order = ordersJpaAdapter.findOrderById(orderId);
+        if (!order.hasAllTicketsIssued()) {
+            log.warn("Invoice requested for orderId={} before all tickets were issued — ignoring", orderId);
+            return;
+        }
+        // QR images are only loaded here, where they are embedded
+        InvoicePort.InvoiceResult result = invoiceAdapter.generateInvoice(order, ordersJpaAdapter.findTicketQrImages(orderId));
+        // Use stored user email (no synchronous user service call)
+        String recipient = order.getUserEmail();
+        if (recipient == null || recipient.isBlank()) {
+            log.warn("No valid email stored for userId={} — cannot send invoice for orderId={}", order.getUserId(), order.getId());
+            return;
+        }
+
+        // correlates with the order rather than a fresh id; the trace itself travels in the message headers
+        emailPublisher.publishEmailRequest(
+            "order-" + order.getId(),
+            recipient,
+            "Your Invoice",
+            "Thank you for your purchase. Your tickets are attached as QR codes.",
+            result.url()
+        );
+    }
 }
@@ -1,5 +1,8 @@
 package com.ticketchief.orderservice.config;
 
+import com.ticketchief.common.messaging.ConfirmedPublisher;
+import com.ticketchief.common.messaging.ListenerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.amqp.core.*;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
@@ -33,6 +36,24 @@ public class RabbitMqConfig {
     @Value("${app.rabbit.ticket.created.routing-key:ticket.created}")
     private String ticketCreatedRoutingKey;
 
+    @Value("${app.rabbit.invoice.requested.queue:invoice.requested.queue}")
+    private String invoiceRequestedQueueName;
+
+    @Value("${app.rabbit.invoice.requested.routing-key:invoice.requested}")
+    private String invoiceRequestedRoutingKey;
+
+    @Value("${app.rabbit.payment.results.broadcast-exchange:payment.results.broadcast}")
+    private String paymentResultsBroadcastExchange;
+
+    @Value("${app.rabbit.order-cache.invalidation-exchange:orders.cache.invalidation}")
+    private String orderCacheInvalidationExchange;
+
+    @Value("${app.rabbit.publisher.max-outstanding:1000}")
+    private int publisherMaxOutstanding;
+
+    @Value("${app.rabbit.publisher.acquire-timeout-ms:5000}")
+    private long publisherAcquireTimeoutMs;
+
     @Bean
     public TopicExchange paymentsExchange() {
         return ExchangeBuilder.topicExchange(paymentsExchange).durable(true).build();
@@ -48,6 +69,10 @@ public class RabbitMqConfig {
         return QueueBuilder.durable(ticketCreatedQueueName).build();
     }
 
+    @Bean
+    public Queue invoiceRequestedQueue() {
+        return QueueBuilder.durable(invoiceRequestedQueueName).build();
+    }
 
     @Bean
     public Binding bindProcessedQueue(Queue paymentsProcessedQueue, TopicExchange paymentsExchange) {
@@ -59,6 +84,48 @@ public class RabbitMqConfig {
         return BindingBuilder.bind(ticketCreatedQueue).to(paymentsExchange).with(ticketCreatedRoutingKey);
     }
 
+    @Bean
+    public Binding bindInvoiceRequestedQueue(Queue invoiceRequestedQueue, TopicExchange paymentsExchange) {
+        return BindingBuilder.bind(invoiceRequestedQueue).to(paymentsExchange).with(invoiceRequestedRoutingKey);
+    }
+
+    // Every replica gets its own copy of each final payment result on a server-named, exclusive queue
+    // that disappears with the replica, so whichever replica holds the waiting request can answer it
+    @Bean
+    public FanoutExchange paymentResultsBroadcastExchange() {
+        return ExchangeBuilder.fanoutExchange(paymentResultsBroadcastExchange).durable(true).build();
+    }
+
+    @Bean
+    public Queue paymentResultsBroadcastQueue() {
+        String name = new Base64UrlNamingStrategy("orderservice.payment-results.").generateName();
+        return QueueBuilder.nonDurable(name).exclusive().autoDelete().build();
+    }
+
+    @Bean
+    public Binding bindPaymentResultsBroadcastQueue(Queue paymentResultsBroadcastQueue,
+                                                    FanoutExchange paymentResultsBroadcastExchange) {
+        return BindingBuilder.bind(paymentResultsBroadcastQueue).to(paymentResultsBroadcastExchange);
+    }
+
+    // Order cache evictions, fanned out the same way to one exclusive queue per replica
+    @Bean
+    public FanoutExchange orderCacheInvalidationExchange() {
+        return ExchangeBuilder.fanoutExchange(orderCacheInvalidationExchange).durable(true).build();
+    }
+
+    @Bean
+    public Queue orderCacheInvalidationQueue() {
+        String name = new Base64UrlNamingStrategy("orderservice.order-cache.").generateName();
+        return QueueBuilder.nonDurable(name).exclusive().autoDelete().build();
+    }
+
+    @Bean
+    public Binding bindOrderCacheInvalidationQueue(Queue orderCacheInvalidationQueue,
+                                                   FanoutExchange orderCacheInvalidationExchange) {
+        return BindingBuilder.bind(orderCacheInvalidationQueue).to(orderCacheInvalidationExchange);
+    }
+
     @Bean
     public PaymentRabbitProperties paymentRabbitProperties() {
         return new PaymentRabbitProperties(paymentsExchange, paymentsRoutingKey);
@@ -69,6 +136,23 @@ public class RabbitMqConfig {
                                          Jackson2JsonMessageConverter converter) {
         RabbitTemplate rt = new RabbitTemplate(connectionFactory);
         rt.setMessageConverter(converter);
+        // publish time for the consumers' rabbit.listener.lag
+        rt.setBeforePublishPostProcessors(ListenerMetrics.stampPublishTime());
+        // traceparent header from the current span
+        rt.setObservationEnabled(true);
         return rt;
     }
+
+    // Sends the outbox relay's batches with correlated confirms (spring.rabbitmq.publisher-confirm-type=correlated).
+    // Its own template without observation: the relay sets the traceparent captured when the event was
+    // written, which an observed template would overwrite with the relay thread's context
+    @Bean
+    public ConfirmedPublisher confirmedPublisher(ConnectionFactory connectionFactory, Jackson2JsonMessageConverter converter,
+                                                 MeterRegistry meterRegistry) {
+        RabbitTemplate outboxTemplate = new RabbitTemplate(connectionFactory);
+        outboxTemplate.setMessageConverter(converter);
+        outboxTemplate.setBeforePublishPostProcessors(ListenerMetrics.stampPublishTime());
+        return new ConfirmedPublisher(outboxTemplate, meterRegistry, "orderservice-outbox",
+                publisherMaxOutstanding, publisherAcquireTimeoutMs);
+    }
 }
@@ -2,8 +2,15 @@ package com.ticketchief.orderservice.config;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.HttpResource;
+
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 public class StaticInvoiceConfig implements WebMvcConfigurer {
@@ -13,10 +20,42 @@ public class StaticInvoiceConfig implements WebMvcConfigurer {
 
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        // http://localhost:8080/files/invoices/1.pdf → file:{storageDir}/1.pdf
-        registry.addResourceHandler("/files/invoices/**")
+        // http://localhost:8080/files/invoices/1-3f2a9c0d4e5b6a71.pdf → content-addressed, never changes:
+        // browsers and proxies may keep it for a year without revalidating; the hash doubles as strong ETag.
+        // A precomputed 1-3f2a9c0d4e5b6a71.pdf.gz is served instead to clients accepting gzip.
+        // Both patterns only match finished invoices: temp files of running or crashed renders share the directory.
+        registry.addResourceHandler("/files/invoices/{invoice:\\d+-[0-9a-f]+}.pdf")
+                .addResourceLocations("file:" + storageDir + "/")
+                .setCacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable())
+                .setEtagGenerator(StaticInvoiceConfig::etag)
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver());
+
+        // http://localhost:8080/files/invoices/1.pdf → file:{storageDir}/1.pdf, latest invoice of the order;
+        // may be regenerated, so clients revalidate (Last-Modified) before reuse
+        registry.addResourceHandler("/files/invoices/{orderId:\\d+}.pdf")
                 .addResourceLocations("file:" + storageDir + "/")
-                .setCachePeriod(0); // optional for dev
+                .setCacheControl(CacheControl.noCache());
     }
-}
 
+    // 1-3f2a9c0d4e5b6a71.pdf → 3f2a9c0d4e5b6a71, or 3f2a9c0d4e5b6a71-gzip for the precompressed variant
+    private static String etag(Resource resource) {
+        String filename = resource.getFilename();
+        if (filename == null) {
+            return null;
+        }
+        int dash = filename.lastIndexOf('-');
+        int dot = filename.indexOf('.', dash + 1);
+        if (dash < 0 || dot < 0) {
+            return null;
+        }
+        String hash = filename.substring(dash + 1, dot);
+        if (resource instanceof HttpResource encoded) {
+            String encoding = encoded.getResponseHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+            if (encoding != null) {
+                return hash + "-" + encoding;
+            }
+        }
+        return hash;
+    }
+}
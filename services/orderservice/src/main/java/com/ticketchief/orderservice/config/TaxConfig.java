@@ -0,0 +1,18 @@
+package com.ticketchief.orderservice.config;
+
+import com.ticketchief.orderservice.domain.TaxRule;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.math.BigDecimal;
+
+// Tax rule applied to order totals, a flat rate on the subtotal
+@Configuration
+public class TaxConfig {
+
+    @Bean
+    public TaxRule taxRule(@Value("${app.orders.tax.rate:0.14}") BigDecimal rate) {
+        return TaxRule.flatRate(rate);
+    }
+}
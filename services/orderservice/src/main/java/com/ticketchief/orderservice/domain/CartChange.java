@@ -0,0 +1,12 @@
+package com.ticketchief.orderservice.domain;
+
+import java.util.List;
+
+// Seats to add and item ids to remove, applied to one order together (removals first)
+public record CartChange(List<CartItem> add, List<Long> remove) {
+
+    public CartChange {
+        add = add == null ? List.of() : add;
+        remove = remove == null ? List.of() : remove;
+    }
+}
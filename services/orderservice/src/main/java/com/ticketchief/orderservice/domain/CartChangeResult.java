@@ -0,0 +1,24 @@
+package com.ticketchief.orderservice.domain;
+
+import java.util.List;
+
+/**
+ * Outcome of a CartChange: the order as stored afterwards and one entry per requested addition and
+ * removal, in request order. Rejected entries leave the rest of the change unaffected.
+ */
+public record CartChangeResult(Order order, List<ItemOutcome> added, List<ItemOutcome> removed) {
+
+    public enum Outcome {
+        ADDED,
+        REMOVED,
+        // seat already in the order, or requested twice
+        DUPLICATE_SEAT,
+        // missing event/seat or a negative price
+        INVALID,
+        NOT_FOUND
+    }
+
+    // itemId is the stored item's id for ADDED and REMOVED entries
+    public record ItemOutcome(Long itemId, String eventId, String seatId, Outcome outcome) {
+    }
+}
@@ -7,6 +7,7 @@ public record CartItem(
         long unitPriceCents,
         String reservationId,
         String ticketId,
-        String ticketQr
+        // SHA-256 of the ticket's QR image (see TicketQr); the image itself is not part of the order
+        String ticketQrId
 ) {
 }
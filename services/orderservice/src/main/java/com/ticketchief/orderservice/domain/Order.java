@@ -5,6 +5,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
 
@@ -15,11 +16,14 @@ public class Order {
     private final String userEmail;
     private final List<CartItem> items;
     private Status status;
+    // subtotal plus tax; both are kept current by the item operations below (see TaxRule)
     private long totalAmountCents;
     private long taxAmountCents;
     private String currency;
     private OffsetDateTime createdAt;
     private OffsetDateTime updatedAt;
+    // optimistic-lock version of the stored order; a write based on an older version is rejected
+    private long version;
 
     public enum Status {
         IN_CART,
@@ -58,30 +62,49 @@ public class Order {
 
     // Adds an item to the order when the order is in the IN_CART status.
     // Preserves behaviour expected by controller/service/tests.
-    public void addItem(CartItem item) {
+    public void addItem(CartItem item, TaxRule taxRule) {
         if (this.status != Status.IN_CART) {
             throw new IllegalStateException("Cannot add item unless order is IN_CART");
         }
         this.items.add(item);
+        applySubtotal(getSubtotalCents() + item.unitPriceCents(), taxRule);
     }
 
     // Deletes an item by id when the order is IN_CART. Returns true if removed.
-    public boolean deleteItem(Long itemId) {
+    public boolean deleteItem(Long itemId, TaxRule taxRule) {
         if (this.status != Status.IN_CART) {
             throw new IllegalStateException("Cannot delete item unless order is IN_CART");
         }
-        return this.items.removeIf(ci -> Objects.equals(ci.id(), itemId));
+        for (Iterator<CartItem> it = items.iterator(); it.hasNext(); ) {
+            CartItem item = it.next();
+            if (Objects.equals(item.id(), itemId)) {
+                it.remove();
+                applySubtotal(getSubtotalCents() - item.unitPriceCents(), taxRule);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Recomputes the figures from all items; only needed when the items did not arrive through addItem
+    public void recalculateTotals(TaxRule taxRule) {
+        applySubtotal(items.stream().mapToLong(CartItem::unitPriceCents).sum(), taxRule);
+    }
+
+    private void applySubtotal(long subtotalCents, TaxRule taxRule) {
+        this.taxAmountCents = taxRule.taxCents(subtotalCents);
+        this.totalAmountCents = subtotalCents + taxAmountCents;
     }
 
     public List<CartItem> getItems() {
         return Collections.unmodifiableList(items);
     }
 
-    public boolean assignTicket(String eventId, String seatId, String ticketId, String ticketQr) {
+    public boolean assignTicket(String eventId, String seatId, String ticketId, String ticketQrId) {
         for (int i = 0; i < items.size(); i++) {
             CartItem current = items.get(i);
             if (Objects.equals(current.eventId(), eventId) && Objects.equals(current.seatId(), seatId)) {
-                if (Objects.equals(current.ticketId(), ticketId) && Objects.equals(current.ticketQr(), ticketQr)) {
+                if (Objects.equals(current.ticketId(), ticketId) && Objects.equals(current.ticketQrId(), ticketQrId)) {
                     return false;
                 }
                 CartItem updated = new CartItem(
@@ -91,7 +114,7 @@ public class Order {
                         current.unitPriceCents(),
                         current.reservationId(),
                         ticketId,
-                        ticketQr
+                        ticketQrId
                 );
                 items.set(i, updated);
                 return true;
@@ -100,8 +123,28 @@ public class Order {
         return false;
     }
 
+    // Returns the item booked for the given seat, or null if the order has none.
+    public CartItem findItemBySeat(String eventId, String seatId) {
+        for (CartItem item : items) {
+            if (Objects.equals(item.eventId(), eventId) && Objects.equals(item.seatId(), seatId)) {
+                return item;
+            }
+        }
+        return null;
+    }
+
+    // Replaces an item added via addItem with its persisted counterpart (carrying the generated id).
+    public void replaceItem(CartItem unsaved, CartItem persisted) {
+        for (int i = 0; i < items.size(); i++) {
+            if (items.get(i) == unsaved) {
+                items.set(i, persisted);
+                return;
+            }
+        }
+    }
+
     public boolean hasAllTicketsIssued() {
-        return !items.isEmpty() && items.stream().allMatch(item -> item.ticketQr() != null);
+        return !items.isEmpty() && items.stream().allMatch(item -> item.ticketQrId() != null);
     }
 
     public Long getId() {
@@ -123,6 +166,11 @@ public class Order {
         this.status = Status.PAID;
     }
 
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public long getSubtotalCents() {
+        return totalAmountCents - taxAmountCents;
+    }
+
     public long getTotalAmountCents() {
         return totalAmountCents;
     }
@@ -162,4 +210,13 @@ public class Order {
     public void setUpdatedAt(OffsetDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,7 @@
+package com.ticketchief.orderservice.domain;
+
+import java.util.List;
+
+// One page of a listing; nextCursor is null on the last page
+public record OrderPage(List<OrderSummary> orders, String nextCursor) {
+}
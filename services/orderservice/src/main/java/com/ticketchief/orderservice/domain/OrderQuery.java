@@ -0,0 +1,54 @@
+package com.ticketchief.orderservice.domain;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+/**
+ * Filters for an order listing, newest first. Every filter is optional; createdFrom is inclusive and
+ * createdTo exclusive. Pages continue after the (createdAt, id) of the last order already returned
+ * instead of skipping an offset, so deep pages cost the same as the first one.
+ */
+public record OrderQuery(
+        String userId,
+        Order.Status status,
+        OffsetDateTime createdFrom,
+        OffsetDateTime createdTo,
+        Cursor after,
+        int limit
+) {
+    public static final int MAX_LIMIT = 100;
+
+    public OrderQuery {
+        limit = Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    /**
+     * Position in a listing, handed to clients as an opaque token.
+     */
+    public record Cursor(OffsetDateTime createdAt, Long id) {
+
+        public static Cursor of(OrderSummary last) {
+            return new Cursor(last.createdAt(), last.id());
+        }
+
+        public String encode() {
+            String raw = createdAt.toInstant() + "_" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+        }
+
+        // Throws IllegalArgumentException for anything encode() did not produce
+        public static Cursor decode(String token) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII);
+                int sep = raw.lastIndexOf('_');
+                return new Cursor(OffsetDateTime.ofInstant(Instant.parse(raw.substring(0, sep)), ZoneOffset.UTC),
+                        Long.valueOf(raw.substring(sep + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.ticketchief.orderservice.domain;
+
+import java.time.OffsetDateTime;
+
+/**
+ * What order listings show: the order row's own columns and how many items it has, without the items.
+ */
+public record OrderSummary(
+        Long id,
+        String userId,
+        Order.Status status,
+        long itemCount,
+        long totalAmountCents,
+        long taxAmountCents,
+        String currency,
+        OffsetDateTime createdAt,
+        OffsetDateTime updatedAt
+) {
+}
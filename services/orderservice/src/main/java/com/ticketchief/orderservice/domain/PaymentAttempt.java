@@ -0,0 +1,24 @@
+package com.ticketchief.orderservice.domain;
+
+import com.ticketchief.common.events.PaymentProcessedEvent;
+import com.ticketchief.common.events.PaymentProcessedEvent.PaymentStatus;
+
+/**
+ * One payment requested for an order, identified by the correlationId handed to the client. It outlives the
+ * order, so a finally failed payment (which deletes the order) can still be answered from stored state.
+ * {@code status} is null until the final outcome has been applied.
+ */
+public record PaymentAttempt(String correlationId, Long orderId, PaymentStatus status, String reason) {
+
+    public static PaymentAttempt pending(String correlationId, Long orderId) {
+        return new PaymentAttempt(correlationId, orderId, null, null);
+    }
+
+    public boolean isSettled() {
+        return status != null;
+    }
+
+    public PaymentProcessedEvent toEvent() {
+        return new PaymentProcessedEvent(correlationId, orderId, status, reason);
+    }
+}
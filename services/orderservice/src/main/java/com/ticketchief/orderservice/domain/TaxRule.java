@@ -0,0 +1,21 @@
+package com.ticketchief.orderservice.domain;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Computes the tax owed on an order's subtotal. Order keeps its figures current with the rule on every
+ * item change, so a rule must only depend on the subtotal it is given.
+ */
+@FunctionalInterface
+public interface TaxRule {
+
+    long taxCents(long subtotalCents);
+
+    // Single rate on the whole subtotal, fractions of a cent dropped
+    static TaxRule flatRate(BigDecimal rate) {
+        return subtotalCents -> BigDecimal.valueOf(subtotalCents).multiply(rate)
+                .setScale(0, RoundingMode.DOWN)
+                .longValueExact();
+    }
+}
@@ -0,0 +1,37 @@
+package com.ticketchief.orderservice.domain;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * A ticket's QR code as PNG bytes, identified by the SHA-256 of those bytes. Order items only carry the
+ * id; the image itself is stored once and read only where it is shown (invoice, QR endpoint).
+ */
+public record TicketQr(String id, byte[] png) {
+
+    public static TicketQr of(byte[] png) {
+        try {
+            return new TicketQr(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(png)), png);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Decodes the "data:image/png;base64,..." form the event-ticket service sends, without copying the
+    // Base64 payload out as a substring first; throws IllegalArgumentException for anything else.
+    public static TicketQr fromDataUrl(String dataUrl) {
+        int commaIdx = dataUrl == null ? -1 : dataUrl.indexOf(',');
+        if (commaIdx == -1 || commaIdx + 1 >= dataUrl.length()) {
+            throw new IllegalArgumentException("Not a data URL");
+        }
+        byte[] ascii = dataUrl.getBytes(StandardCharsets.ISO_8859_1);
+        ByteBuffer decoded = Base64.getDecoder().decode(ByteBuffer.wrap(ascii, commaIdx + 1, ascii.length - commaIdx - 1));
+        byte[] png = new byte[decoded.remaining()];
+        decoded.get(png);
+        return of(png);
+    }
+}
@@ -2,7 +2,10 @@ package com.ticketchief.orderservice.port.input;
 
 
 import com.ticketchief.common.events.PaymentProcessedEvent;
+import com.ticketchief.orderservice.domain.PaymentAttempt;
 
 public interface OrderPaymentServicePort {
         void onPaymentProcessed(PaymentProcessedEvent event);
+        // The payment requested for orderId under correlationId, or null if that correlationId is not the order's
+        PaymentAttempt findPaymentAttempt(Long orderId, String correlationId);
 }
@@ -1,7 +1,11 @@
 package com.ticketchief.orderservice.port.input;
+import com.ticketchief.orderservice.domain.CartChange;
+import com.ticketchief.orderservice.domain.CartChangeResult;
 import com.ticketchief.orderservice.domain.CartItem;
 import com.ticketchief.orderservice.domain.Order;
-import jakarta.annotation.Resource;
+import com.ticketchief.orderservice.domain.OrderPage;
+import com.ticketchief.orderservice.domain.OrderQuery;
+import org.springframework.core.io.Resource;
 import org.springframework.http.ResponseEntity;
 
 import java.io.IOException;
@@ -12,11 +16,14 @@ public interface OrderServicePort {
         void cancelOrder(Long orderId);
         String finalizeOrder(Long orderId);
         Order findOrder(Long orderId);
+        OrderPage listOrders(OrderQuery query);
 
         // Add/remove items from an order
         Order addItem(Long orderId, com.ticketchief.orderservice.domain.CartItem item);
         void deleteItem(Long orderId, Long itemId);
+        CartChangeResult changeItems(Long orderId, CartChange change);
 
-        ResponseEntity<byte[]> getInvoice(Long orderId) throws IOException;
+        ResponseEntity<Resource> getInvoice(Long orderId) throws IOException;
+        ResponseEntity<byte[]> getTicketQr(Long orderId, Long itemId);
 
 }
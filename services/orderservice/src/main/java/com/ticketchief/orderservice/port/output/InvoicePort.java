@@ -2,7 +2,10 @@ package com.ticketchief.orderservice.port.output;
 
 import com.ticketchief.orderservice.domain.Order;
 
+import java.util.Map;
+
 public interface InvoicePort {
     record InvoiceResult(String invoiceId, String url) {}
-    InvoiceResult generateInvoice(Order order);
+    // qrImages: PNG bytes keyed by CartItem.ticketQrId
+    InvoiceResult generateInvoice(Order order, Map<String, byte[]> qrImages);
 }
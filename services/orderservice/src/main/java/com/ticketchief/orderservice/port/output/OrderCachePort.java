@@ -0,0 +1,14 @@
+package com.ticketchief.orderservice.port.output;
+
+import com.ticketchief.orderservice.domain.Order;
+
+import java.util.function.Function;
+
+public interface OrderCachePort {
+    // Returns the cached order, or loads and caches it. Cached instances are shared between readers,
+    // so this is only for read-only use; anything that modifies an order must load it itself.
+    Order get(Long orderId, Function<Long, Order> loader);
+
+    // Drops the order on this and every other replica once the current transaction (if any) has committed
+    void evict(Long orderId);
+}
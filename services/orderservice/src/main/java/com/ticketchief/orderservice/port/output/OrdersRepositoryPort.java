@@ -1,9 +1,41 @@
 package com.ticketchief.orderservice.port.output;
 
+import com.ticketchief.orderservice.domain.CartItem;
 import com.ticketchief.orderservice.domain.Order;
+import com.ticketchief.orderservice.domain.OrderQuery;
+import com.ticketchief.orderservice.domain.OrderSummary;
+import com.ticketchief.orderservice.domain.PaymentAttempt;
+import com.ticketchief.orderservice.domain.TicketQr;
+
+import java.util.List;
+import java.util.Map;
 
 public interface OrdersRepositoryPort {
     Order findOrderById(Long orderId) throws RuntimeException;
+    // Newest first, at most maxResults; items are not read
+    List<OrderSummary> findOrderSummaries(OrderQuery query, int maxResults);
     Order save(Order order);
     void deleteById(Long orderId);
+
+    // Row-level cart mutations: each touches only the affected order_items row
+    // instead of rewriting the whole aggregate through save(Order). They also advance the order's
+    // version, so they fail with OptimisticLockingFailureException if the order was changed since
+    // it was read, exactly like save(Order) does. The cart edits store the order's total and tax
+    // together with that version bump.
+    CartItem appendItem(Order order, CartItem item);
+    boolean removeItem(Order order, Long itemId);
+    // Several cart edits in one transaction and one version bump; returns the added items with their ids
+    List<CartItem> applyCartChange(Order order, List<CartItem> added, List<Long> removedItemIds);
+    // Writes ticketId and the QR image (looked up by the item's ticketQrId) of all given items in one
+    // transaction; returns the number of rows updated.
+    int updateItemTickets(Order order, List<CartItem> items, Map<String, byte[]> qrImagesById);
+
+    // QR images are never part of a loaded Order; these read them where they are actually shown
+    TicketQr findTicketQr(Long orderId, Long itemId);
+    Map<String, byte[]> findTicketQrImages(Long orderId);
+
+    // Payments requested for an order, kept after the order is deleted; save inserts or updates by correlationId
+    PaymentAttempt savePaymentAttempt(PaymentAttempt attempt);
+    // null if no payment was requested under this correlationId
+    PaymentAttempt findPaymentAttempt(String correlationId);
 }
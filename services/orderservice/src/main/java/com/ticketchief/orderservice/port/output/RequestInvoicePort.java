@@ -0,0 +1,5 @@
+package com.ticketchief.orderservice.port.output;
+
+public interface RequestInvoicePort {
+    void requestInvoice(Long orderId);
+}
@@ -0,0 +1,172 @@
+package com.ticketchief.orderservice.adapter.input;
+
+import com.ticketchief.common.metrics.PipelineMetrics;
+import com.ticketchief.orderservice.adapter.output.persistence.OrdersJpaAdapter;
+import com.ticketchief.orderservice.adapter.output.persistence.entity.OrderEntity;
+import com.ticketchief.orderservice.adapter.output.persistence.entity.OrderJpaRepository;
+import com.ticketchief.orderservice.application.OrderService;
+import com.ticketchief.orderservice.domain.Order;
+import com.ticketchief.orderservice.domain.TaxRule;
+import com.ticketchief.orderservice.port.output.OrderCachePort;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Filling an empty cart with N seats through the controller, service and JPA adapter against an
+ * embedded database: one POST /items per seat versus a single PATCH /items. Run from the repository
+ * root with:
+ * <pre>
+ * mvn -pl services/common -am install -DskipTests
+ * mvn -pl services/orderservice test-compile
+ * mvn -pl services/orderservice exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *     -Dexec.args="-cp %classpath com.ticketchief.orderservice.adapter.input.CartBulkBenchmark"
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CartBulkBenchmark {
+
+    private static final String EVENT_ID = "8d7f3c2e-1b4a-4c5d-9e6f-0a1b2c3d4e5f";
+
+    @Param({"1", "10", "30"})
+    public int seats;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private MockMvc mockMvc;
+    private Statistics statistics;
+    private String[] seatJson;
+    private String bulkJson;
+    private long operations;
+
+    @Configuration
+    @ImportAutoConfiguration({DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class,
+            TransactionAutoConfiguration.class, JdbcTemplateAutoConfiguration.class})
+    @EntityScan(basePackageClasses = OrderEntity.class)
+    @EnableJpaRepositories(basePackageClasses = OrderJpaRepository.class)
+    @Import(OrdersJpaAdapter.class)
+    static class Persistence {
+    }
+
+    // Reads always go to the database, so both flows see the same cost per load
+    private static final class NoCache implements OrderCachePort {
+        @Override
+        public Order get(Long orderId, Function<Long, Order> loader) {
+            return loader.apply(orderId);
+        }
+
+        @Override
+        public void evict(Long orderId) {
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(Persistence.class).web(WebApplicationType.NONE).run(
+                "--spring.datasource.url=jdbc:h2:mem:cart-bench;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.properties.hibernate.generate_statistics=true",
+                "--logging.level.root=WARN");
+        orderService = new OrderService(context.getBean(OrdersJpaAdapter.class), mock(), mock(), mock(), mock(), mock(),
+                mock(), TransactionOperations.withoutTransaction(), new NoCache(), TaxRule.flatRate(new BigDecimal("0.14")));
+        mockMvc = MockMvcBuilders.standaloneSetup(new OrderController(orderService, new PendingPaymentAwaiter(100),
+                new PipelineMetrics(new SimpleMeterRegistry()))).build();
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+
+        seatJson = new String[seats];
+        StringBuilder bulk = new StringBuilder("{\"add\":[");
+        for (int i = 0; i < seats; i++) {
+            seatJson[i] = "{\"eventId\":\"" + EVENT_ID + "\",\"seatId\":\"A" + i + "\",\"unitPriceCents\":5000}";
+            bulk.append(i == 0 ? "" : ",").append(seatJson[i]);
+        }
+        bulkJson = bulk.append("]}").toString();
+    }
+
+    @Setup(Level.Iteration)
+    public void resetCounters() {
+        statistics.clear();
+        operations = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void report() {
+        System.out.printf("%n  %.1f SQL statements per cart of %d seats%n", (double) statistics.getPrepareStatementCount() / operations, seats);
+        context.getBean(JdbcTemplate.class).execute("delete from order_items");
+        context.getBean(JdbcTemplate.class).execute("delete from orders");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Long perItem() throws Exception {
+        Long orderId = newCart();
+        for (String seat : seatJson) {
+            mockMvc.perform(post("/api/orders/{id}/items", orderId).contentType(MediaType.APPLICATION_JSON).content(seat))
+                    .andExpect(status().isOk());
+        }
+        return orderId;
+    }
+
+    @Benchmark
+    public Long bulk() throws Exception {
+        Long orderId = newCart();
+        mockMvc.perform(patch("/api/orders/{id}/items", orderId).contentType(MediaType.APPLICATION_JSON).content(bulkJson))
+                .andExpect(status().isOk());
+        return orderId;
+    }
+
+    private Long newCart() {
+        operations++;
+        return orderService.placeOrder(new Order(null, UUID.randomUUID().toString(), "user@example.com", null, Order.Status.IN_CART)).getId();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CartBulkBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
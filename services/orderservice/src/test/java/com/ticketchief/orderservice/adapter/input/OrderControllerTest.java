@@ -0,0 +1,240 @@
+package com.ticketchief.orderservice.adapter.input;
+
+import com.ticketchief.common.events.PaymentProcessedEvent;
+import com.ticketchief.common.events.PaymentProcessedEvent.PaymentStatus;
+import com.ticketchief.common.metrics.PipelineMetrics;
+import com.ticketchief.orderservice.adapter.output.cache.BroadcastingOrderCache;
+import com.ticketchief.orderservice.application.OrderService;
+import com.ticketchief.orderservice.domain.CartItem;
+import com.ticketchief.orderservice.domain.Order;
+import com.ticketchief.orderservice.domain.OrderQuery;
+import com.ticketchief.orderservice.domain.OrderSummary;
+import com.ticketchief.orderservice.domain.PaymentAttempt;
+import com.ticketchief.orderservice.domain.TaxRule;
+import com.ticketchief.orderservice.domain.TicketQr;
+import com.ticketchief.orderservice.port.output.OrdersRepositoryPort;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Web-layer tests for OrderController: invoice downloads, conflicting cart edits and pushed payment results.
+ */
+class OrderControllerTest {
+
+    private static final byte[] PDF = "%PDF-1.4 fake invoice body".getBytes();
+
+    @TempDir
+    Path storageDir;
+
+    private final OrdersRepositoryPort ordersRepository = mock();
+
+    private final PendingPaymentAwaiter paymentAwaiter = new PendingPaymentAwaiter(100);
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        OrderService orderService = new OrderService(ordersRepository, mock(), mock(), mock(), mock(), mock(), mock(), mock(),
+                new BroadcastingOrderCache(mock(), new SimpleMeterRegistry(), 100, 10_000, "orders.cache.invalidation"),
+                TaxRule.flatRate(new BigDecimal("0.14")));
+        ReflectionTestUtils.setField(orderService, "storageDir", storageDir.toString());
+        mockMvc = MockMvcBuilders.standaloneSetup(new OrderController(orderService, paymentAwaiter,
+                new PipelineMetrics(new SimpleMeterRegistry()))).build();
+        Files.write(storageDir.resolve("7.pdf"), PDF);
+    }
+
+    @Test
+    void testInvoiceIsServedWithValidators() throws Exception {
+        mockMvc.perform(get("/api/orders/7/invoice"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/pdf"))
+                .andExpect(content().bytes(PDF))
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"));
+    }
+
+    @Test
+    void testRangeRequestReturnsPartialContent() throws Exception {
+        mockMvc.perform(get("/api/orders/7/invoice").header(HttpHeaders.RANGE, "bytes=0-7"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 0-7/" + PDF.length))
+                .andExpect(content().string("%PDF-1.4"));
+    }
+
+    @Test
+    void testMatchingETagReturnsNotModified() throws Exception {
+        String etag = mockMvc.perform(get("/api/orders/7/invoice"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/orders/7/invoice").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void testMissingInvoiceReturnsNotFound() throws Exception {
+        mockMvc.perform(get("/api/orders/8/invoice"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testConcurrentCartEditReturnsConflict() throws Exception {
+        when(ordersRepository.findOrderById(7L)).thenReturn(new Order(7L, null, null, List.of(), Order.Status.IN_CART));
+        when(ordersRepository.appendItem(any(), any(CartItem.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Order.class, 7L));
+
+        mockMvc.perform(post("/api/orders/7/items")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"eventId\":\"e-1\",\"seatId\":\"A1\",\"unitPriceCents\":5000}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").exists());
+    }
+
+    @Test
+    void testBulkCartChangeReportsAnOutcomePerEntry() throws Exception {
+        when(ordersRepository.findOrderById(7L)).thenReturn(new Order(7L, null, null,
+                List.of(new CartItem(3L, "e-1", "A1", 5000L, null, null, null)), Order.Status.IN_CART));
+        when(ordersRepository.applyCartChange(any(), anyList(), anyList())).thenAnswer(inv -> List.<CartItem>of(
+                new CartItem(4L, "e-1", "A2", 5000L, null, null, null)));
+
+        mockMvc.perform(patch("/api/orders/7/items")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"add": [{"eventId":"e-1","seatId":"A2","unitPriceCents":5000},
+                                         {"eventId":"e-1","seatId":"A1","unitPriceCents":5000}],
+                                 "remove": [99]}"""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.added[0].outcome").value("ADDED"))
+                .andExpect(jsonPath("$.added[0].itemId").value(4))
+                .andExpect(jsonPath("$.added[1].outcome").value("DUPLICATE_SEAT"))
+                .andExpect(jsonPath("$.removed[0].outcome").value("NOT_FOUND"))
+                .andExpect(jsonPath("$.order.items.length()").value(2));
+    }
+
+    @Test
+    void testListingHandsOutACursorForTheNextPage() throws Exception {
+        OffsetDateTime createdAt = OffsetDateTime.of(2025, 3, 1, 12, 0, 0, 123_456_000, ZoneOffset.UTC);
+        String userId = "3f1c2a9e-0d4b-4e8f-9a7c-5b6d1e2f3a4b";
+        when(ordersRepository.findOrderSummaries(any(), eq(2))).thenReturn(List.of(
+                new OrderSummary(9L, userId, Order.Status.PAID, 2, 11400L, 1400L, "CAD", createdAt, createdAt),
+                new OrderSummary(8L, userId, Order.Status.PAID, 1, 5700L, 700L, "CAD", createdAt, createdAt)));
+
+        MvcResult first = mockMvc.perform(get("/api/orders").param("userId", userId).param("status", "PAID").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders.length()").value(1))
+                .andExpect(jsonPath("$.orders[0].id").value(9))
+                .andExpect(jsonPath("$.orders[0].itemCount").value(2))
+                .andExpect(jsonPath("$.orders[0].items").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").isString())
+                .andReturn();
+        String cursor = com.jayway.jsonpath.JsonPath.read(first.getResponse().getContentAsString(), "$.nextCursor");
+
+        mockMvc.perform(get("/api/orders").param("userId", userId).param("after", cursor).param("limit", "1"))
+                .andExpect(status().isOk());
+        verify(ordersRepository).findOrderSummaries(argThat(q -> q.after() != null
+                && q.after().id() == 9L && q.after().createdAt().isEqual(createdAt) && userId.equals(q.userId())), eq(2));
+
+        mockMvc.perform(get("/api/orders").param("after", "not-a-cursor")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/orders").param("userId", "not-a-uuid")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testPaymentResultIsPushedWhenItArrives() throws Exception {
+        when(ordersRepository.findPaymentAttempt("corr-7")).thenReturn(PaymentAttempt.pending("corr-7", 7L));
+
+        MvcResult pending = mockMvc.perform(get("/api/orders/7/payments/corr-7/result"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        paymentAwaiter.complete(new PaymentProcessedEvent("corr-7", 7L, PaymentStatus.FAILED, "declined"));
+
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(content().string(containsString("event:payment-result")))
+                .andExpect(content().string(containsString("\"status\":\"FAILED\"")));
+        assertEquals(0, paymentAwaiter.waiting("corr-7"));
+    }
+
+    @Test
+    void testAlreadyPaidOrderAnswersImmediately() throws Exception {
+        when(ordersRepository.findPaymentAttempt("corr-7"))
+                .thenReturn(new PaymentAttempt("corr-7", 7L, PaymentStatus.SUCCESS, null));
+
+        MvcResult result = mockMvc.perform(get("/api/orders/7/payments/corr-7/result")).andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(content().string(containsString("\"status\":\"SUCCESS\"")));
+    }
+
+    @Test
+    void testMissedFailureIsAnsweredFromTheStoredOutcome() throws Exception {
+        // the order itself was deleted by the failure
+        when(ordersRepository.findPaymentAttempt("corr-7"))
+                .thenReturn(new PaymentAttempt("corr-7", 7L, PaymentStatus.FAILED, "declined"));
+
+        MvcResult result = mockMvc.perform(get("/api/orders/7/payments/corr-7/result")).andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(content().string(containsString("\"status\":\"FAILED\"")))
+                .andExpect(content().string(containsString("\"reason\":\"declined\"")));
+    }
+
+    @Test
+    void testPaymentResultRejectsACorrelationIdOfAnotherOrder() throws Exception {
+        when(ordersRepository.findPaymentAttempt("corr-8")).thenReturn(PaymentAttempt.pending("corr-8", 8L));
+
+        mockMvc.perform(get("/api/orders/7/payments/corr-8/result")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/orders/7/payments/unknown/result")).andExpect(status().isNotFound());
+        assertEquals(0, paymentAwaiter.waiting("corr-8"));
+        assertEquals(0, paymentAwaiter.waiting("unknown"));
+    }
+
+    @Test
+    void testTicketQrIsServedAsCacheablePng() throws Exception {
+        TicketQr qr = TicketQr.of(new byte[]{(byte) 0x89, 'P', 'N', 'G'});
+        when(ordersRepository.findTicketQr(7L, 3L)).thenReturn(qr);
+
+        mockMvc.perform(get("/api/orders/7/items/3/qr"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.IMAGE_PNG))
+                .andExpect(content().bytes(qr.png()))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + qr.id() + "\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("immutable")));
+        mockMvc.perform(get("/api/orders/7/items/3/qr").header(HttpHeaders.IF_NONE_MATCH, "\"" + qr.id() + "\""))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/orders/7/items/4/qr"))
+                .andExpect(status().isNotFound());
+    }
+}
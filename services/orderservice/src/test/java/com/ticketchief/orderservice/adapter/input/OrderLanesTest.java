@@ -0,0 +1,73 @@
+package com.ticketchief.orderservice.adapter.input;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderLanesTest {
+
+    private final OrderLanes lanes = new OrderLanes(4);
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        lanes.shutdown();
+    }
+
+    @Test
+    void tasksForOneOrderRunInSubmissionOrder() {
+        Map<Long, List<Integer>> seen = new ConcurrentHashMap<>();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            long orderId = i % 10;
+            int sequence = i;
+            futures.add(lanes.submit(orderId, () ->
+                    seen.computeIfAbsent(orderId, id -> Collections.synchronizedList(new ArrayList<>())).add(sequence)));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+        seen.forEach((orderId, sequences) -> {
+            assertEquals(100, sequences.size());
+            for (int j = 1; j < sequences.size(); j++) {
+                assertTrue(sequences.get(j - 1) < sequences.get(j), "order " + orderId + " out of sequence");
+            }
+        });
+    }
+
+    @Test
+    void ordersOnDifferentLanesRunInParallel() throws InterruptedException {
+        long first = 1;
+        long second = 2;
+        while (lanes.laneOf(second) == lanes.laneOf(first)) {
+            second++;
+        }
+        CountDownLatch bothRunning = new CountDownLatch(2);
+        Runnable waitForOther = () -> {
+            bothRunning.countDown();
+            try {
+                bothRunning.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        lanes.submit(first, waitForOther);
+        lanes.submit(second, waitForOther);
+
+        assertTrue(bothRunning.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void numericAndStringIdsOfAnOrderShareALane() {
+        assertEquals(lanes.laneOf(42L), lanes.laneOf("42"));
+    }
+}
@@ -0,0 +1,61 @@
+package com.ticketchief.orderservice.adapter.input;
+
+import com.ticketchief.common.events.PaymentProcessedEvent;
+import com.ticketchief.common.events.PaymentProcessedEvent.PaymentStatus;
+import com.ticketchief.common.metrics.PipelineMetrics;
+import com.ticketchief.orderservice.port.input.OrderPaymentServicePort;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * The listener acks once its future completes; a failure there would requeue an already applied result.
+ */
+class PaymentProcessedListenerTest {
+
+    private final OrderPaymentServicePort orderPaymentService = mock();
+    private final RabbitTemplate rabbitTemplate = mock();
+    private final OrderLanes lanes = new OrderLanes(2);
+    private final PendingPaymentAwaiter awaiter = new PendingPaymentAwaiter(10);
+    private final PaymentProcessedListener listener = new PaymentProcessedListener(orderPaymentService, lanes, awaiter,
+            rabbitTemplate, new PipelineMetrics(new SimpleMeterRegistry()));
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        lanes.shutdown();
+    }
+
+    @Test
+    void resultWithoutCorrelationIdIsAppliedAndAcked() throws Exception {
+        PaymentProcessedEvent event = new PaymentProcessedEvent(null, 7L, PaymentStatus.SUCCESS, null);
+
+        listener.onPaymentProcessed(event).get(5, TimeUnit.SECONDS);
+        listener.onPaymentResultBroadcast(event);
+
+        verify(orderPaymentService).onPaymentProcessed(event);
+        verify(rabbitTemplate, never()).convertAndSend(anyString(), anyString(), any(Object.class), any(MessagePostProcessor.class));
+    }
+
+    @Test
+    void resultIsHandedToWaitersAndBroadcast() throws Exception {
+        PaymentProcessedEvent event = new PaymentProcessedEvent("corr-7", 7L, PaymentStatus.FAILED, "declined");
+        var waiting = awaiter.register("corr-7");
+
+        listener.onPaymentProcessed(event).get(5, TimeUnit.SECONDS);
+
+        assertSame(event, waiting.getNow(null));
+        verify(rabbitTemplate).convertAndSend(any(), eq(""), eq(event), any(MessagePostProcessor.class));
+    }
+}
@@ -0,0 +1,67 @@
+package com.ticketchief.orderservice.adapter.input;
+
+import com.ticketchief.common.events.PaymentProcessedEvent;
+import com.ticketchief.common.events.PaymentProcessedEvent.PaymentStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PendingPaymentAwaiterTest {
+
+    private final PendingPaymentAwaiter awaiter = new PendingPaymentAwaiter(2);
+
+    @Test
+    void everyWaiterOfACorrelationIdIsCompleted() {
+        CompletableFuture<PaymentProcessedEvent> first = awaiter.register("corr-1");
+        CompletableFuture<PaymentProcessedEvent> second = awaiter.register("corr-1");
+        CompletableFuture<PaymentProcessedEvent> other = awaiter.register("corr-2");
+
+        awaiter.complete(success("corr-1"));
+
+        assertEquals(PaymentStatus.SUCCESS, first.join().status());
+        assertSame(first.join(), second.join());
+        assertFalse(other.isDone());
+        assertEquals(0, awaiter.waiting("corr-1"));
+    }
+
+    @Test
+    void resultThatArrivedFirstIsHandedToLateWaiters() {
+        awaiter.complete(success("corr-1"));
+
+        CompletableFuture<PaymentProcessedEvent> late = awaiter.register("corr-1");
+
+        assertTrue(late.isDone());
+        assertEquals(0, awaiter.waiting("corr-1"));
+    }
+
+    @Test
+    void cancelledWaitersAreForgotten() {
+        CompletableFuture<PaymentProcessedEvent> first = awaiter.register("corr-1");
+        CompletableFuture<PaymentProcessedEvent> second = awaiter.register("corr-1");
+
+        awaiter.cancel("corr-1", first);
+        assertEquals(1, awaiter.waiting("corr-1"));
+        assertThrows(TimeoutException.class, () -> awaiter.await("corr-1", Duration.ofMillis(10)));
+        awaiter.cancel("corr-1", second);
+
+        assertEquals(0, awaiter.waiting("corr-1"));
+    }
+
+    @Test
+    void onlyTheMostRecentResultsAreRemembered() {
+        awaiter.complete(success("corr-1"));
+        awaiter.complete(success("corr-2"));
+        awaiter.complete(success("corr-3"));
+
+        assertFalse(awaiter.register("corr-1").isDone());
+        assertTrue(awaiter.register("corr-3").isDone());
+    }
+
+    private static PaymentProcessedEvent success(String correlationId) {
+        return new PaymentProcessedEvent(correlationId, 1L, PaymentStatus.SUCCESS, null);
+    }
+}
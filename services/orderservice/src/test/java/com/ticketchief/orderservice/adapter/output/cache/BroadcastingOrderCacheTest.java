@@ -0,0 +1,100 @@
+package com.ticketchief.orderservice.adapter.output.cache;
+
+import com.ticketchief.orderservice.domain.Order;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BroadcastingOrderCacheTest {
+
+    private final RabbitTemplate rabbitTemplate = mock();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Function<Long, Order> loader = id -> {
+        loads.incrementAndGet();
+        return new Order(id, "user-1", "user@example.com", List.of(), Order.Status.PAID);
+    };
+
+    @Test
+    void repeatedReadsAreServedFromMemoryAndCounted() {
+        BroadcastingOrderCache cache = cache(10, 10_000);
+
+        Order first = cache.get(1L, loader);
+        Order second = cache.get(1L, loader);
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(1.0, registry.get("cache.gets").tag("result", "hit").counter().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("result", "miss").counter().count());
+        assertEquals(1.0, registry.get("cache.size").gauge().value());
+    }
+
+    @Test
+    void entriesExpireAndTheLeastRecentlyUsedIsDropped() throws InterruptedException {
+        BroadcastingOrderCache aged = cache(10, 1);
+        aged.get(1L, loader);
+        Thread.sleep(5);
+        aged.get(1L, loader);
+        assertEquals(2, loads.get());
+
+        loads.set(0);
+        BroadcastingOrderCache small = cache(2, 10_000);
+        small.get(1L, loader);
+        small.get(2L, loader);
+        small.get(1L, loader);
+        small.get(3L, loader);
+        small.get(1L, loader);
+        small.get(2L, loader);
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void evictionWaitsForCommitAndIsBroadcast() {
+        BroadcastingOrderCache cache = cache(10, 10_000);
+        cache.get(1L, loader);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.evict(1L);
+            cache.get(1L, loader);
+            assertEquals(1, loads.get(), "still cached until the writer commits");
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        cache.get(1L, loader);
+        assertEquals(2, loads.get());
+        assertEquals(1.0, registry.get("cache.evictions").counter().count());
+        verify(rabbitTemplate).convertAndSend(eq("orders.cache.invalidation"), eq(""), eq(1L), any(MessagePostProcessor.class));
+    }
+
+    @Test
+    void loadOverlappingAnEvictionIsNotCached() {
+        BroadcastingOrderCache cache = cache(10, 10_000);
+
+        cache.get(1L, id -> {
+            // another replica's write lands while this read is in flight
+            cache.onInvalidation(id, "other-replica");
+            return loader.apply(id);
+        });
+        cache.get(1L, loader);
+
+        assertEquals(2, loads.get());
+    }
+
+    private BroadcastingOrderCache cache(int maxEntries, long ttlMs) {
+        return new BroadcastingOrderCache(rabbitTemplate, registry, maxEntries, ttlMs, "orders.cache.invalidation");
+    }
+}
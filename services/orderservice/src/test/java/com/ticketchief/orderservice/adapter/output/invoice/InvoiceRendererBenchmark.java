@@ -0,0 +1,99 @@
+package com.ticketchief.orderservice.adapter.output.invoice;
+
+import com.ticketchief.orderservice.domain.CartItem;
+import com.ticketchief.orderservice.domain.Order;
+import com.ticketchief.orderservice.domain.TicketQr;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Invoices/second and allocation per invoice (gc.alloc.rate.norm) for the classic and the cached
+ * renderer at 1, 10 and 100 seats. Run from the repository root with:
+ * <pre>
+ * mvn -pl services/common -am install -DskipTests
+ * mvn -pl services/orderservice test-compile
+ * mvn -pl services/orderservice exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *     -Dexec.args="-cp %classpath com.ticketchief.orderservice.adapter.output.invoice.InvoiceRendererBenchmark"
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InvoiceRendererBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int seats;
+
+    private Order order;
+    private Map<String, byte[]> qrImages;
+
+    @Setup
+    public void setUp() throws IOException {
+        TicketQr qr = TicketQr.fromDataUrl(qrDataUrl());
+        qrImages = Map.of(qr.id(), qr.png());
+        List<CartItem> items = new ArrayList<>(seats);
+        for (int i = 0; i < seats; i++) {
+            items.add(new CartItem((long) i, UUID.randomUUID().toString(), "A" + i, 5000L, null, UUID.randomUUID().toString(), qr.id()));
+        }
+        order = new Order(1L, UUID.randomUUID().toString(), "user@example.com", items, Order.Status.PAID);
+    }
+
+    @Benchmark
+    public byte[] classic() {
+        return PdfInvoiceRenderer.render(order, qrImages);
+    }
+
+    @Benchmark
+    public byte[] cached() {
+        return CachedPdfInvoiceRenderer.render(order, qrImages);
+    }
+
+    // How PdfInvoiceAdapter uses the cached renderer: streamed to the destination, no intermediate byte[]
+    @Benchmark
+    public void cachedStreamed(Blackhole blackhole) {
+        OutputStream sink = OutputStream.nullOutputStream();
+        CachedPdfInvoiceRenderer.render(order, qrImages, sink);
+        blackhole.consume(sink);
+    }
+
+    // A QR-sized PNG, encoded the way the event-ticket service sends it
+    private static String qrDataUrl() throws IOException {
+        BufferedImage image = new BufferedImage(290, 290, BufferedImage.TYPE_BYTE_BINARY);
+        for (int x = 0; x < image.getWidth(); x++) {
+            for (int y = 0; y < image.getHeight(); y++) {
+                if (((x / 10) + (y / 10)) % 2 == 0) {
+                    image.setRGB(x, y, 0xFFFFFF);
+                }
+            }
+        }
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", png);
+        return "data:image/png;base64," + Base64.getEncoder().encodeToString(png.toByteArray());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(InvoiceRendererBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
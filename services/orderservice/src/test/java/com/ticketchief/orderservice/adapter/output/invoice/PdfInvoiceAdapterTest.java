@@ -0,0 +1,110 @@
+package com.ticketchief.orderservice.adapter.output.invoice;
+
+import com.ticketchief.orderservice.domain.CartItem;
+import com.ticketchief.orderservice.domain.Order;
+import com.ticketchief.orderservice.port.output.InvoicePort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for invoice file naming and storage in PdfInvoiceAdapter.
+ */
+class PdfInvoiceAdapterTest {
+
+    @TempDir
+    Path storageDir;
+
+    private PdfInvoiceAdapter adapter;
+
+    @BeforeEach
+    void setUp() {
+        adapter = new PdfInvoiceAdapter();
+        ReflectionTestUtils.setField(adapter, "storageDir", storageDir.toString());
+        ReflectionTestUtils.setField(adapter, "baseUrl", "http://localhost:8080/files/invoices");
+        ReflectionTestUtils.setField(adapter, "renderer", "cached");
+    }
+
+    @Test
+    void testInvoiceIsStoredUnderContentHashAndLatestAlias() throws Exception {
+        InvoicePort.InvoiceResult result = adapter.generateInvoice(order(), Map.of());
+
+        assertTrue(result.invoiceId().matches("42-[0-9a-f]{16}"));
+        assertEquals("http://localhost:8080/files/invoices/" + result.invoiceId() + ".pdf", result.url());
+        Path hashed = storageDir.resolve(result.invoiceId() + ".pdf");
+        Path latest = storageDir.resolve("42.pdf");
+        assertArrayEquals(Files.readAllBytes(hashed), Files.readAllBytes(latest));
+        Path gz = storageDir.resolve(result.invoiceId() + ".pdf.gz");
+        if (Files.exists(gz)) {
+            try (var in = new GZIPInputStream(Files.newInputStream(gz))) {
+                assertArrayEquals(Files.readAllBytes(hashed), in.readAllBytes());
+            }
+        }
+        try (Stream<Path> files = Files.list(storageDir)) {
+            assertTrue(files.noneMatch(f -> f.toString().endsWith(".tmp")), "no temp files left behind");
+        }
+    }
+
+    @Test
+    void testRegeneratedInvoiceGetsNewNameWhenContentChanges() throws Exception {
+        InvoicePort.InvoiceResult first = adapter.generateInvoice(order(), Map.of());
+        Order changed = order();
+        changed.assignTicket("event-1", "A1", "ticket-2", null);
+        InvoicePort.InvoiceResult second = adapter.generateInvoice(changed, Map.of());
+
+        assertNotEquals(first.invoiceId(), second.invoiceId());
+        assertTrue(Files.exists(storageDir.resolve(first.invoiceId() + ".pdf")));
+        assertArrayEquals(Files.readAllBytes(storageDir.resolve(second.invoiceId() + ".pdf")),
+                Files.readAllBytes(storageDir.resolve("42.pdf")));
+    }
+
+    @Test
+    void testConcurrentRendersOfOneOrderDoNotCollide() throws Exception {
+        int renders = 32;
+        ExecutorService pool = Executors.newFixedThreadPool(renders);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<InvoicePort.InvoiceResult>> results = new ArrayList<>();
+            for (int i = 0; i < renders; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return adapter.generateInvoice(order(), Map.of());
+                }));
+            }
+            start.countDown();
+            List<byte[]> rendered = new ArrayList<>();
+            for (Future<InvoicePort.InvoiceResult> result : results) {
+                rendered.add(Files.readAllBytes(storageDir.resolve(result.get().invoiceId() + ".pdf")));
+            }
+            // renders may differ (creation date), the alias is whichever finished last
+            byte[] latest = Files.readAllBytes(storageDir.resolve("42.pdf"));
+            assertTrue(rendered.stream().anyMatch(bytes -> Arrays.equals(bytes, latest)));
+        } finally {
+            pool.shutdownNow();
+        }
+        try (Stream<Path> files = Files.list(storageDir)) {
+            assertTrue(files.noneMatch(f -> f.toString().endsWith(".tmp")), "no temp files left behind");
+        }
+    }
+
+    private static Order order() {
+        return new Order(42L, "user-123", "user@example.com",
+                List.of(new CartItem(1L, "event-1", "A1", 5000L, null, "ticket-1", null)), Order.Status.PAID);
+    }
+}
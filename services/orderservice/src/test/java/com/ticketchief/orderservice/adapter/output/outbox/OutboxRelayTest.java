@@ -0,0 +1,176 @@
+package com.ticketchief.orderservice.adapter.output.outbox;
+
+import com.ticketchief.common.events.InvoiceRequestedEvent;
+import com.ticketchief.common.messaging.ConfirmedPublisher;
+import com.ticketchief.common.tracing.MessageTracing;
+import com.ticketchief.orderservice.adapter.output.persistence.entity.OutboxJpaRepository;
+import com.ticketchief.orderservice.config.MessageConverterConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.otel.bridge.OtelCurrentTraceContext;
+import io.micrometer.tracing.otel.bridge.OtelPropagator;
+import io.micrometer.tracing.otel.bridge.OtelTracer;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Outbox write and relay against an embedded database, with the broker mocked at channel level:
+ * every send is acked (or nacked) through its correlation data as the broker would.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "app.outbox.relay.batch-size=2"
+})
+@Import({TransactionalOutbox.class, OutboxRelay.class, MessageConverterConfig.class, OutboxRelayTest.Publisher.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxRelayTest {
+
+    @Autowired
+    private TransactionalOutbox outbox;
+
+    @Autowired
+    private OutboxRelay relay;
+
+    @Autowired
+    private OutboxJpaRepository repository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @MockitoBean
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    private ConfirmedPublisher publisher;
+
+    @Autowired
+    private Tracer tracer;
+
+    private final RabbitOperations channel = mock();
+
+    @TestConfiguration
+    static class Publisher {
+        @Bean
+        ConfirmedPublisher confirmedPublisher(RabbitTemplate rabbitTemplate) {
+            return new ConfirmedPublisher(rabbitTemplate, new SimpleMeterRegistry(), "test", 10, 1000);
+        }
+
+        private final io.opentelemetry.api.trace.Tracer otel = SdkTracerProvider.builder().build().get("test");
+
+        @Bean
+        OtelTracer tracer() {
+            return new OtelTracer(otel, new OtelCurrentTraceContext(), event -> { });
+        }
+
+        @Bean
+        MessageTracing messageTracing(OtelTracer tracer) {
+            return new MessageTracing(tracer,
+                    new OtelPropagator(ContextPropagators.create(W3CTraceContextPropagator.getInstance()), otel));
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAllInBatch();
+        when(rabbitTemplate.invoke(any())).thenAnswer(invocation ->
+                invocation.<RabbitOperations.OperationsCallback<Object>>getArgument(0).doInRabbit(channel));
+        brokerAnswers(true);
+    }
+
+    private void brokerAnswers(boolean ack) {
+        doAnswer(invocation -> invocation.<CorrelationData>getArgument(3).getFuture()
+                .complete(new CorrelationData.Confirm(ack, ack ? null : "nack")))
+                .when(channel).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+    }
+
+    @Test
+    void testEventIsStoredOnlyWhenTheTransactionCommits() {
+        transactionTemplate.executeWithoutResult(status -> outbox.enqueue("payments.exchange", "invoice.requested", new InvoiceRequestedEvent(1L)));
+        transactionTemplate.executeWithoutResult(status -> {
+            outbox.enqueue("payments.exchange", "invoice.requested", new InvoiceRequestedEvent(2L));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(1, repository.count());
+        verifyNoInteractions(rabbitTemplate);
+    }
+
+    @Test
+    void testDrainPublishesConfirmedBatchesAndDeletesThem() {
+        for (long orderId = 1; orderId <= 5; orderId++) {
+            outbox.enqueue("payments.exchange", "invoice.requested", new InvoiceRequestedEvent(orderId));
+        }
+
+        relay.drain();
+
+        // batches of 2: 2 + 2 + 1, each sent on one channel and deleted once confirmed
+        verify(rabbitTemplate, times(3)).invoke(any());
+        ArgumentCaptor<Message> sent = ArgumentCaptor.forClass(Message.class);
+        verify(channel, times(5)).send(eq("payments.exchange"), eq("invoice.requested"), sent.capture(), any(CorrelationData.class));
+        assertEquals(0, repository.count());
+        assertEquals(0, publisher.outstandingConfirms());
+
+        Message first = sent.getAllValues().get(0);
+        assertEquals(InvoiceRequestedEvent.class.getName(), first.getMessageProperties().getHeader("__TypeId__"));
+        assertEquals("application/json", first.getMessageProperties().getContentType());
+        assertTrue(new String(first.getBody(), StandardCharsets.UTF_8).contains("\"orderId\":1"));
+    }
+
+    @Test
+    void testBatchIsKeptWhenTheBrokerDoesNotConfirm() {
+        outbox.enqueue("payments.exchange", "invoice.requested", new InvoiceRequestedEvent(1L));
+        brokerAnswers(false);
+
+        relay.drain();
+
+        assertEquals(1, repository.count());
+        assertEquals(0, publisher.outstandingConfirms());
+    }
+
+    @Test
+    void testRelayedMessageContinuesTheTraceThatWroteTheEvent() {
+        Span request = tracer.nextSpan().name("finalize").start();
+        try (Tracer.SpanInScope ignored = tracer.withSpan(request)) {
+            transactionTemplate.executeWithoutResult(status -> outbox.enqueue("payments.exchange", "invoice.requested", new InvoiceRequestedEvent(1L)));
+        } finally {
+            request.end();
+        }
+        outbox.enqueue("payments.exchange", "invoice.requested", new InvoiceRequestedEvent(2L));
+
+        relay.drain();
+
+        ArgumentCaptor<Message> sent = ArgumentCaptor.forClass(Message.class);
+        verify(channel, times(2)).send(anyString(), anyString(), sent.capture(), any(CorrelationData.class));
+        String traced = sent.getAllValues().get(0).getMessageProperties().getHeader(MessageTracing.TRACEPARENT);
+        String untraced = sent.getAllValues().get(1).getMessageProperties().getHeader(MessageTracing.TRACEPARENT);
+        // 00-<trace id>-<span id>-<flags>: same trace, but the relay's producer span as parent
+        assertEquals(request.context().traceId(), traced.split("-")[1]);
+        assertNotEquals(request.context().spanId(), traced.split("-")[2]);
+        assertNotNull(untraced);
+        assertNotEquals(request.context().traceId(), untraced.split("-")[1]);
+    }
+}
@@ -0,0 +1,364 @@
+package com.ticketchief.orderservice.adapter.output.persistence;
+
+import com.ticketchief.common.events.PaymentProcessedEvent.PaymentStatus;
+import com.ticketchief.orderservice.domain.CartItem;
+import com.ticketchief.orderservice.domain.Order;
+import com.ticketchief.orderservice.domain.OrderQuery;
+import com.ticketchief.orderservice.domain.OrderSummary;
+import com.ticketchief.orderservice.domain.PaymentAttempt;
+import com.ticketchief.orderservice.domain.TaxRule;
+import com.ticketchief.orderservice.domain.TicketQr;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Persistence tests for OrdersJpaAdapter against an embedded database.
+ * Each adapter call runs in its own transaction, as it does in production, and the
+ * JDBC statement counts compare the full-aggregate save path with the row-level cart operations.
+ * Batching and pooled id settings come from application.properties, as in production.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.ticketchief.orderservice.adapter.output.persistence.SqlRecorder"
+})
+@Import(OrdersJpaAdapter.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrdersJpaAdapterTest {
+
+    private static final int CART_SIZE = 40;
+    private static final TaxRule TAX = TaxRule.flatRate(new BigDecimal("0.14"));
+
+    @Autowired
+    private OrdersJpaAdapter adapter;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void appendItemWritesOneRowWhereSaveRewritesTheAggregate() {
+        Long fullPathOrderId = placeCart(CART_SIZE).getId();
+        Order deltaPathOrder = placeCart(CART_SIZE);
+
+        Order order = adapter.findOrderById(fullPathOrderId);
+        order.addItem(seat("Z1"), TAX);
+        long fullPath = countStatements(() -> adapter.save(order));
+        long fullPathLoads = statistics.getEntityLoadCount();
+
+        long deltaPath = countStatements(() -> adapter.appendItem(deltaPathOrder, seat("Z1")));
+        long deltaPathLoads = statistics.getEntityLoadCount();
+
+        // the item insert plus the order's version bump
+        assertEquals(2, deltaPath);
+        assertEquals(0, deltaPathLoads);
+        assertTrue(deltaPath < fullPath);
+        assertTrue(fullPathLoads > CART_SIZE);
+        assertEquals(CART_SIZE + 1, adapter.findOrderById(fullPathOrderId).getItems().size());
+        assertEquals(CART_SIZE + 1, adapter.findOrderById(deltaPathOrder.getId()).getItems().size());
+    }
+
+    @Test
+    void savingAFiftyItemOrderBatchesTheItemInserts() {
+        List<CartItem> items = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            items.add(seat("A" + i));
+        }
+        Order order = new Order(null, UUID.randomUUID().toString(), "user@example.com", items, Order.Status.IN_CART);
+
+        Order[] saved = new Order[1];
+        long statements = countStatements(() -> saved[0] = adapter.save(order));
+        List<String> sql = SqlRecorder.statements();
+
+        long itemInserts = sql.stream().filter(s -> s.startsWith("insert into order_items")).count();
+        long sequenceFetches = sql.stream().filter(SqlRecorder::isSequenceFetch).count();
+        // the order row and one batch of 50 item rows; with IDENTITY ids this was 1 + 50 round trips
+        assertEquals(2, statements);
+        assertEquals(1, itemInserts);
+        // at most one block for the order and two for the items (if the current block had fewer than 50 left)
+        assertTrue(sequenceFetches <= 3);
+        assertEquals(50, adapter.findOrderById(saved[0].getId()).getItems().size());
+    }
+
+    @Test
+    void findOrderByIdLoadsAggregateInOneStatementWithoutManagedEntities() {
+        Long orderId = placeCart(CART_SIZE).getId();
+
+        Order[] loaded = new Order[1];
+        long statements = countStatements(() -> loaded[0] = adapter.findOrderById(orderId));
+
+        assertEquals(1, statements);
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(CART_SIZE, loaded[0].getItems().size());
+        assertEquals("user@example.com", loaded[0].getUserEmail());
+    }
+
+    @Test
+    void findOrderByIdLoadsOrderWithoutItems() {
+        Long orderId = placeCart(0).getId();
+
+        Order loaded = adapter.findOrderById(orderId);
+
+        assertEquals(orderId, loaded.getId());
+        assertTrue(loaded.getItems().isEmpty());
+    }
+
+    @Test
+    void findOrderByIdThrowsForUnknownOrder() {
+        assertThrows(RuntimeException.class, () -> adapter.findOrderById(-1L));
+    }
+
+    @Test
+    void appendItemIgnoresClientSuppliedId() {
+        Order order = placeCart(1);
+        Long existingId = order.getItems().get(0).id();
+
+        CartItem appended = adapter.appendItem(order, new CartItem(existingId, UUID.randomUUID().toString(), "B1", 2500L, null, null, null));
+
+        assertNotEquals(existingId, appended.id());
+        assertEquals(2, adapter.findOrderById(order.getId()).getItems().size());
+    }
+
+    @Test
+    void removeItemDeletesSingleRow() {
+        Order order = placeCart(3);
+        Long itemId = order.getItems().get(1).id();
+
+        long statements = countStatements(() -> assertTrue(adapter.removeItem(order, itemId)));
+
+        assertEquals(2, statements);
+        assertEquals(2, adapter.findOrderById(order.getId()).getItems().size());
+        assertFalse(adapter.removeItem(order, itemId));
+    }
+
+    @Test
+    void removeItemIsScopedToOrder() {
+        Order order = placeCart(1);
+        Order other = placeCart(1);
+
+        assertFalse(adapter.removeItem(other, order.getItems().get(0).id()));
+        assertEquals(1, adapter.findOrderById(order.getId()).getItems().size());
+    }
+
+    @Test
+    void updateItemTicketsUpdatesOnlyTheGivenRowsWithOneVersionBump() {
+        Order order = placeCart(3);
+        TicketQr first = TicketQr.of(new byte[]{(byte) 0x89, 'P', 'N', 'G', 1});
+        TicketQr second = TicketQr.of(new byte[]{(byte) 0x89, 'P', 'N', 'G', 2});
+        List<CartItem> issued = new ArrayList<>();
+        for (int i = 1; i <= 2; i++) {
+            CartItem item = order.getItems().get(i);
+            order.assignTicket(item.eventId(), item.seatId(), UUID.randomUUID().toString(), (i == 1 ? first : second).id());
+            issued.add(order.findItemBySeat(item.eventId(), item.seatId()));
+        }
+
+        long statements = countStatements(() -> assertEquals(2,
+                adapter.updateItemTickets(order, issued, Map.of(first.id(), first.png(), second.id(), second.png()))));
+
+        // one update per item plus the order's version bump
+        assertEquals(3, statements);
+        Order reloaded = adapter.findOrderById(order.getId());
+        for (CartItem item : issued) {
+            CartItem stored = reloaded.findItemBySeat(item.eventId(), item.seatId());
+            assertEquals(item.ticketId(), stored.ticketId());
+            assertEquals(item.ticketQrId(), stored.ticketQrId());
+        }
+        assertNull(reloaded.getItems().get(0).ticketId());
+        assertArrayEquals(second.png(), adapter.findTicketQrImages(order.getId()).get(second.id()));
+    }
+
+    @Test
+    void qrImagesAreOnlyReadOnRequestAndSurviveAggregateSaves() {
+        Order order = placeCart(2);
+        CartItem item = order.getItems().get(0);
+        TicketQr qr = TicketQr.of(new byte[]{(byte) 0x89, 'P', 'N', 'G'});
+        order.assignTicket(item.eventId(), item.seatId(), UUID.randomUUID().toString(), qr.id());
+        adapter.updateItemTickets(order, List.of(order.findItemBySeat(item.eventId(), item.seatId())), Map.of(qr.id(), qr.png()));
+
+        // a full save merges items that never carry the image; it must not be wiped
+        Order reloaded = adapter.findOrderById(order.getId());
+        reloaded.setStatus(Order.Status.PAID);
+        adapter.save(reloaded);
+
+        assertArrayEquals(qr.png(), adapter.findTicketQr(order.getId(), item.id()).png());
+        assertArrayEquals(qr.png(), adapter.findTicketQrImages(order.getId()).get(qr.id()));
+        assertNull(adapter.findTicketQr(order.getId(), order.getItems().get(1).id()), "no ticket issued yet");
+        assertNull(adapter.findTicketQr(placeCart(1).getId(), item.id()), "scoped to the order");
+    }
+
+    @Test
+    void cartEditsStoreTheOrderTotalsWithTheVersionBump() {
+        Order order = placeCart(2);
+        CartItem added = seat("B1");
+        order.addItem(added, TAX);
+
+        long statements = countStatements(() -> order.replaceItem(added, adapter.appendItem(order, added)));
+
+        assertEquals(2, statements);
+        Order reloaded = adapter.findOrderById(order.getId());
+        assertEquals(15000L, reloaded.getSubtotalCents());
+        assertEquals(2100L, reloaded.getTaxAmountCents());
+        assertEquals(17100L, reloaded.getTotalAmountCents());
+
+        Long removedId = reloaded.getItems().get(0).id();
+        reloaded.deleteItem(removedId, TAX);
+        adapter.removeItem(reloaded, removedId);
+
+        assertEquals(11400L, adapter.findOrderById(order.getId()).getTotalAmountCents());
+    }
+
+    @Test
+    void listingWalksKeysetPagesWithoutLoadingItems() {
+        String userId = UUID.randomUUID().toString();
+        // same creation time for most of them, so pages have to be told apart by id
+        OffsetDateTime createdAt = OffsetDateTime.of(2025, 3, 1, 12, 0, 0, 123_456_000, ZoneOffset.UTC);
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            expected.add(0, placeOrderAt(userId, Order.Status.PAID, i < 4 ? createdAt : createdAt.plusSeconds(1), 3).getId());
+        }
+        Long pending = placeOrderAt(userId, Order.Status.PAYMENT_PENDING, createdAt, 1).getId();
+        placeOrderAt(UUID.randomUUID().toString(), Order.Status.PAID, createdAt, 1);
+
+        List<Long> seen = new ArrayList<>();
+        OrderQuery.Cursor after = null;
+        do {
+            OrderQuery query = new OrderQuery(userId, Order.Status.PAID, null, null, after, 2);
+            List<OrderSummary> page = new ArrayList<>();
+            long statements = countStatements(() -> page.addAll(adapter.findOrderSummaries(query, query.limit())));
+            assertEquals(1, statements);
+            assertEquals(0, statistics.getEntityLoadCount());
+            page.forEach(summary -> {
+                assertEquals(3, summary.itemCount());
+                seen.add(summary.id());
+            });
+            after = page.size() < query.limit() ? null : OrderQuery.Cursor.of(page.get(page.size() - 1));
+        } while (after != null);
+
+        assertEquals(expected, seen);
+        assertEquals(List.of(pending), adapter.findOrderSummaries(
+                new OrderQuery(userId, Order.Status.PAYMENT_PENDING, null, null, null, 10), 10).stream().map(OrderSummary::id).toList());
+        assertEquals(4, adapter.findOrderSummaries(
+                new OrderQuery(userId, Order.Status.PAID, createdAt, createdAt.plusNanos(1000), null, 10), 10).size());
+    }
+
+    @Test
+    void cartChangeAppliesAdditionsAndRemovalsTogether() {
+        Order order = placeCart(3);
+        List<CartItem> added = List.of(seat("B1"), seat("B2"), seat("B3"));
+        added.forEach(item -> order.addItem(item, TAX));
+        List<Long> removed = List.of(order.getItems().get(0).id(), order.getItems().get(1).id());
+        removed.forEach(itemId -> order.deleteItem(itemId, TAX));
+
+        List<CartItem> persisted = adapter.applyCartChange(order, added, removed);
+
+        assertEquals(List.of("B1", "B2", "B3"), persisted.stream().map(CartItem::seatId).toList());
+        assertTrue(persisted.stream().allMatch(item -> item.id() != null));
+        Order reloaded = adapter.findOrderById(order.getId());
+        assertEquals(List.of("A2", "B1", "B2", "B3"), reloaded.getItems().stream().map(CartItem::seatId).toList());
+        assertEquals(22800L, reloaded.getTotalAmountCents());
+        assertEquals(1, reloaded.getVersion());
+    }
+
+    @Test
+    void staleCartChangeLeavesTheOrderUntouched() {
+        Long orderId = placeCart(2).getId();
+        Order first = adapter.findOrderById(orderId);
+        Order second = adapter.findOrderById(orderId);
+        adapter.appendItem(first, seat("B1"));
+
+        assertThrows(OptimisticLockingFailureException.class, () -> adapter.applyCartChange(second,
+                List.of(seat("C1"), seat("C2")), List.of(second.getItems().get(0).id())));
+
+        assertEquals(List.of("A0", "A1", "B1"), adapter.findOrderById(orderId).getItems().stream().map(CartItem::seatId).toList());
+    }
+
+    @Test
+    void writesBasedOnAStaleVersionAreRejected() {
+        Long orderId = placeCart(2).getId();
+        Order first = adapter.findOrderById(orderId);
+        Order second = adapter.findOrderById(orderId);
+
+        adapter.appendItem(first, seat("B1"));
+
+        assertEquals(1, first.getVersion());
+        assertThrows(OptimisticLockingFailureException.class, () -> adapter.appendItem(second, seat("B2")));
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> adapter.removeItem(second, second.getItems().get(0).id()));
+        second.setStatus(Order.Status.PAYMENT_PENDING);
+        assertThrows(OptimisticLockingFailureException.class, () -> adapter.save(second));
+
+        Order current = adapter.findOrderById(orderId);
+        assertEquals(3, current.getItems().size());
+        assertEquals(Order.Status.IN_CART, current.getStatus());
+        assertEquals(1, current.getVersion());
+    }
+
+    @Test
+    void paymentAttemptOutlivesItsOrder() {
+        Long orderId = placeCart(1).getId();
+        adapter.savePaymentAttempt(PaymentAttempt.pending("corr-1", orderId));
+        assertFalse(adapter.findPaymentAttempt("corr-1").isSettled());
+
+        adapter.savePaymentAttempt(new PaymentAttempt("corr-1", orderId, PaymentStatus.FAILED, "declined"));
+        adapter.deleteById(orderId);
+
+        assertEquals(new PaymentAttempt("corr-1", orderId, PaymentStatus.FAILED, "declined"),
+                adapter.findPaymentAttempt("corr-1"));
+        assertNull(adapter.findPaymentAttempt("corr-2"));
+    }
+
+    private Order placeCart(int seats) {
+        List<CartItem> items = new ArrayList<>();
+        for (int i = 0; i < seats; i++) {
+            items.add(seat("A" + i));
+        }
+        Order order = new Order(null, UUID.randomUUID().toString(), "user@example.com", items, Order.Status.IN_CART);
+        order.recalculateTotals(TAX);
+        return adapter.save(order);
+    }
+
+    private Order placeOrderAt(String userId, Order.Status status, OffsetDateTime createdAt, int seats) {
+        List<CartItem> items = new ArrayList<>();
+        for (int i = 0; i < seats; i++) {
+            items.add(seat("A" + i));
+        }
+        return adapter.save(new Order(null, userId, "user@example.com", items, status, 0L, 0L, "CAD", createdAt, null));
+    }
+
+    private static CartItem seat(String seatId) {
+        return new CartItem(null, "8d7f3c2e-1b4a-4c5d-9e6f-0a1b2c3d4e5f", seatId, 5000L, null, null, null);
+    }
+
+    // Statements prepared by the action, not counting id block fetches
+    private long countStatements(Runnable action) {
+        statistics.clear();
+        SqlRecorder.clear();
+        action.run();
+        return SqlRecorder.statements().stream().filter(sql -> !SqlRecorder.isSequenceFetch(sql)).count();
+    }
+}
@@ -0,0 +1,35 @@
+package com.ticketchief.orderservice.adapter.output.persistence;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Records every SQL string Hibernate prepares. A JDBC batch is prepared once however many rows it
+ * carries, so the count of inserts shows whether batching happened.
+ */
+public class SqlRecorder implements StatementInspector {
+
+    private static final List<String> statements = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        statements.add(sql);
+        return sql;
+    }
+
+    static void clear() {
+        statements.clear();
+    }
+
+    static List<String> statements() {
+        return List.copyOf(statements);
+    }
+
+    // Pooled id allocation fetches a block of ids now and then; where that happens depends on earlier tests
+    static boolean isSequenceFetch(String sql) {
+        String lower = sql.toLowerCase();
+        return lower.contains("next value for") || lower.contains("nextval(");
+    }
+}
@@ -0,0 +1,180 @@
+package com.ticketchief.orderservice.application;
+
+import com.ticketchief.common.events.PaymentProcessedEvent;
+import com.ticketchief.common.events.PaymentProcessedEvent.PaymentStatus;
+import com.ticketchief.common.events.TicketCreatedEvent;
+import com.ticketchief.orderservice.adapter.output.persistence.OrdersJpaAdapter;
+import com.ticketchief.orderservice.domain.CartItem;
+import com.ticketchief.orderservice.domain.Order;
+import com.ticketchief.orderservice.port.output.PublishPaymentValidatedPort;
+import com.ticketchief.orderservice.port.output.RequestInvoicePort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Hammers a single order from many threads at once against an embedded database. Listener-driven
+ * updates must all land exactly once (retrying on conflict); REST cart edits must either apply or
+ * fail with an optimistic-lock conflict, never silently overwrite each other.
+ * Publishers count only calls whose transaction committed, as the outbox would.
+ */
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Import(OrdersJpaAdapter.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderConcurrencyStressTest {
+
+    private static final int THREADS = 16;
+    private static final String EVENT_ID = "8d7f3c2e-1b4a-4c5d-9e6f-0a1b2c3d4e5f";
+
+    @Autowired
+    private OrdersJpaAdapter ordersAdapter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final PublishPaymentValidatedPort paymentValidatedPublisher = mock();
+    private final RequestInvoicePort invoiceRequestPublisher = mock();
+    private final AtomicInteger committedValidations = new AtomicInteger();
+    private final AtomicInteger committedInvoiceRequests = new AtomicInteger();
+
+    private OrderService orderService;
+
+    @BeforeEach
+    void setUp() {
+        orderService = new OrderService(ordersAdapter, mock(), mock(), paymentValidatedPublisher, mock(), mock(),
+                invoiceRequestPublisher, new TransactionTemplate(transactionManager), mock(), subtotal -> 0L);
+        // In production per-order lanes serialize listener work inside one replica, so conflicts only come
+        // from other replicas; here every thread races for the same row and the last one may lose each round.
+        ReflectionTestUtils.setField(orderService, "conflictRetryAttempts", THREADS);
+        ReflectionTestUtils.setField(orderService, "conflictRetryBackoffMs", 2L);
+        doAnswer(inv -> countOnCommit(committedValidations)).when(paymentValidatedPublisher)
+                .publishPaymentValidated(any(), any(), anyList(), any(), any());
+        doAnswer(inv -> countOnCommit(committedInvoiceRequests)).when(invoiceRequestPublisher).requestInvoice(anyLong());
+    }
+
+    @Test
+    void concurrentTicketEventsForOneOrderAllLand() throws Exception {
+        Order order = place(Order.Status.PAID, THREADS);
+
+        runConcurrently(i -> () -> {
+            orderService.onTicketsCreated(List.of(new TicketCreatedEvent(
+                    UUID.randomUUID().toString(), String.valueOf(order.getId()), EVENT_ID, "A" + i,
+                    "data:image/png;base64," + Base64.getEncoder().encodeToString(("qr-" + i).getBytes()))));
+            return null;
+        });
+
+        Order stored = ordersAdapter.findOrderById(order.getId());
+        assertTrue(stored.hasAllTicketsIssued());
+        assertEquals(THREADS, stored.getVersion());
+        // only the transaction that applied the last ticket sees a fully ticketed order
+        assertEquals(1, committedInvoiceRequests.get());
+    }
+
+    @Test
+    void duplicatePaymentEventsMarkTheOrderPaidOnce() throws Exception {
+        Order order = place(Order.Status.PAYMENT_PENDING, 3);
+
+        runConcurrently(i -> () -> {
+            orderService.onPaymentProcessed(new PaymentProcessedEvent("corr-" + i, order.getId(), PaymentStatus.SUCCESS, null));
+            return null;
+        });
+
+        Order stored = ordersAdapter.findOrderById(order.getId());
+        assertEquals(Order.Status.PAID, stored.getStatus());
+        assertEquals(1, stored.getVersion());
+        assertEquals(1, committedValidations.get());
+    }
+
+    @Test
+    void concurrentCartEditsEitherApplyOrConflict() throws Exception {
+        Order order = place(Order.Status.IN_CART, 0);
+
+        List<Future<Boolean>> results = runConcurrently(i -> () -> {
+            try {
+                orderService.addItem(order.getId(), new CartItem(null, EVENT_ID, "B" + i, 5000L, null, null, null));
+                return true;
+            } catch (OptimisticLockingFailureException ex) {
+                return false;
+            }
+        });
+
+        int applied = 0;
+        for (Future<Boolean> result : results) {
+            applied += result.get() ? 1 : 0;
+        }
+        Order stored = ordersAdapter.findOrderById(order.getId());
+        assertTrue(applied >= 1);
+        assertEquals(applied, stored.getItems().size());
+        assertEquals(applied, stored.getVersion());
+    }
+
+    private Order place(Order.Status status, int seats) {
+        List<CartItem> items = new ArrayList<>();
+        for (int i = 0; i < seats; i++) {
+            items.add(new CartItem(null, EVENT_ID, "A" + i, 5000L, UUID.randomUUID().toString(), null, null));
+        }
+        return ordersAdapter.save(new Order(null, UUID.randomUUID().toString(), "user@example.com", items, status));
+    }
+
+    private interface Task<T> {
+        Callable<T> forThread(int index);
+    }
+
+    // Starts all threads at the same moment and fails on any exception other than the ones a task handles
+    private <T> List<Future<T>> runConcurrently(Task<T> task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<T>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                Callable<T> work = task.forThread(i);
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return work.call();
+                }));
+            }
+            start.countDown();
+            for (Future<T> future : futures) {
+                future.get();
+            }
+            return futures;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static Object countOnCommit(AtomicInteger counter) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                counter.incrementAndGet();
+            }
+        });
+        return null;
+    }
+}
@@ -0,0 +1,352 @@
+package com.ticketchief.orderservice.application;
+
+import com.ticketchief.common.events.PaymentProcessedEvent;
+import com.ticketchief.common.events.PaymentProcessedEvent.PaymentStatus;
+import com.ticketchief.common.events.TicketCreatedEvent;
+import com.ticketchief.orderservice.domain.CartChange;
+import com.ticketchief.orderservice.domain.CartChangeResult;
+import com.ticketchief.orderservice.domain.CartChangeResult.Outcome;
+import com.ticketchief.orderservice.domain.CartItem;
+import com.ticketchief.orderservice.domain.Order;
+import com.ticketchief.orderservice.domain.OrderPage;
+import com.ticketchief.orderservice.domain.OrderQuery;
+import com.ticketchief.orderservice.domain.OrderSummary;
+import com.ticketchief.orderservice.domain.PaymentAttempt;
+import com.ticketchief.orderservice.domain.TaxRule;
+import com.ticketchief.orderservice.domain.TicketQr;
+import com.ticketchief.orderservice.port.output.InvoicePort;
+import com.ticketchief.orderservice.port.output.OrderCachePort;
+import com.ticketchief.orderservice.port.output.OrdersRepositoryPort;
+import com.ticketchief.orderservice.port.output.PublishEmailRequestedPort;
+import com.ticketchief.orderservice.port.output.PublishPaymentRequestedPort;
+import com.ticketchief.orderservice.port.output.PublishPaymentValidatedPort;
+import com.ticketchief.orderservice.port.output.PublishReservationReleasePort;
+import com.ticketchief.orderservice.port.output.RequestInvoicePort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.net.ConnectException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for OrderService.
+ */
+@ExtendWith(MockitoExtension.class)
+class OrderServiceTest {
+
+    @Mock
+    private OrdersRepositoryPort ordersRepository;
+    @Mock
+    private PublishPaymentRequestedPort paymentPublisher;
+    @Mock
+    private PublishEmailRequestedPort emailPublisher;
+    @Mock
+    private PublishPaymentValidatedPort paymentValidatedPublisher;
+    @Mock
+    private InvoicePort invoiceAdapter;
+    @Mock
+    private PublishReservationReleasePort reservationReleasePublisher;
+    @Mock
+    private RequestInvoicePort invoiceRequestPublisher;
+    @Mock
+    private OrderCachePort orderCache;
+
+    private OrderService orderService;
+
+    @BeforeEach
+    void setUp() {
+        orderService = new OrderService(ordersRepository, paymentPublisher, emailPublisher,
+                paymentValidatedPublisher, invoiceAdapter, reservationReleasePublisher, invoiceRequestPublisher,
+                TransactionOperations.withoutTransaction(), orderCache, TaxRule.flatRate(new BigDecimal("0.14")));
+    }
+
+    @Test
+    void testTicketBatchLoadsAndPersistsEachOrderOnce() {
+        when(ordersRepository.findOrderById(1L)).thenReturn(paidOrder(1L, "A1", "A2", "A3"));
+        when(ordersRepository.findOrderById(2L)).thenReturn(paidOrder(2L, "B1", "B2"));
+
+        orderService.onTicketsCreated(List.of(
+                ticket("1", "A1"), ticket("2", "B1"), ticket("1", "A2"), ticket("1", "A3")));
+
+        verify(ordersRepository, times(1)).findOrderById(1L);
+        verify(ordersRepository, times(1)).findOrderById(2L);
+        ArgumentCaptor<List<CartItem>> captor = ArgumentCaptor.forClass(List.class);
+        verify(ordersRepository).updateItemTickets(argThat(order -> order.getId() == 1L), captor.capture(), argThat(images -> images.size() == 3));
+        assertEquals(3, captor.getValue().size());
+        verify(ordersRepository).updateItemTickets(argThat(order -> order.getId() == 2L), argThat(items -> items.size() == 1), anyMap());
+        verify(ordersRepository, never()).save(any());
+
+        // only order 1 is complete; rendering is handed off instead of done on the listener thread
+        verify(invoiceRequestPublisher, times(1)).requestInvoice(1L);
+        verify(invoiceRequestPublisher, never()).requestInvoice(2L);
+        verifyNoInteractions(invoiceAdapter, emailPublisher);
+        verify(orderCache).evict(1L);
+        verify(orderCache).evict(2L);
+    }
+
+    @Test
+    void testFindOrderReadsThroughTheCache() {
+        Order order = paidOrder(1L, "A1");
+        when(orderCache.get(eq(1L), any())).thenReturn(order);
+
+        assertSame(order, orderService.findOrder(1L));
+        verify(ordersRepository, never()).findOrderById(any());
+    }
+
+    @Test
+    void testListingReadsOneExtraRowToDecideOnANextPage() {
+        OffsetDateTime now = OffsetDateTime.now();
+        List<OrderSummary> rows = List.of(summary(3L, now), summary(2L, now), summary(1L, now.minusSeconds(1)));
+        when(ordersRepository.findOrderSummaries(any(), eq(3))).thenReturn(rows);
+        when(ordersRepository.findOrderSummaries(any(), eq(4))).thenReturn(rows);
+
+        OrderPage page = orderService.listOrders(new OrderQuery("user-123", null, null, null, null, 2));
+        OrderPage last = orderService.listOrders(new OrderQuery("user-123", null, null, null, null, 3));
+
+        assertEquals(List.of(3L, 2L), page.orders().stream().map(OrderSummary::id).toList());
+        OrderQuery.Cursor cursor = OrderQuery.Cursor.decode(page.nextCursor());
+        assertEquals(2L, cursor.id());
+        assertTrue(cursor.createdAt().isEqual(now));
+        assertEquals(3, last.orders().size());
+        assertNull(last.nextCursor());
+    }
+
+    @Test
+    void testPaymentOutcomesEvictTheCachedOrder() {
+        when(ordersRepository.findOrderById(1L)).thenReturn(pendingOrder(1L));
+        when(ordersRepository.findOrderById(2L)).thenReturn(pendingOrder(2L));
+
+        orderService.onPaymentProcessed(new PaymentProcessedEvent("corr-1", 1L, PaymentStatus.SUCCESS, null));
+        orderService.onPaymentProcessed(new PaymentProcessedEvent("corr-2", 2L, PaymentStatus.FAILED, "declined"));
+
+        verify(orderCache).evict(1L);
+        verify(ordersRepository).deleteById(2L);
+        verify(orderCache).evict(2L);
+        // kept for the result endpoint although order 2 is gone
+        verify(ordersRepository).savePaymentAttempt(new PaymentAttempt("corr-2", 2L, PaymentStatus.FAILED, "declined"));
+    }
+
+    @Test
+    void testPlacedOrderTotalsAreComputedFromItems() {
+        when(ordersRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        List<CartItem> items = List.of(new CartItem(null, "event-1", "A1", 5000L, null, null, null),
+                new CartItem(null, "event-1", "A2", 2599L, null, null, null));
+
+        Order placed = orderService.placeOrder(new Order(null, "user-123", "user@example.com", items, Order.Status.IN_CART,
+                1L, 0L, "CAD", null, null));
+
+        assertEquals(7599L, placed.getSubtotalCents());
+        assertEquals(1063L, placed.getTaxAmountCents());
+        assertEquals(8662L, placed.getTotalAmountCents());
+    }
+
+    @Test
+    void testFinalizeChargesTheStoredTotal() {
+        Order order = cartOrder(1L);
+        order.addItem(new CartItem(null, "event-1", "A1", 5000L, "res-1", null, null), TaxRule.flatRate(new BigDecimal("0.14")));
+        when(ordersRepository.findOrderById(1L)).thenReturn(order);
+
+        String correlationId = orderService.finalizeOrder(1L);
+
+        verify(paymentPublisher).publishPaymentRequested(eq(correlationId), eq(1L), eq(5700L));
+        verify(ordersRepository).savePaymentAttempt(PaymentAttempt.pending(correlationId, 1L));
+    }
+
+    @Test
+    void testBulkCartChangeValidatesEachEntryAndWritesOnce() {
+        Order order = cartOrder(1L);
+        order.addItem(new CartItem(100L, "event-1", "A1", 5000L, "res-1", null, null), TaxRule.flatRate(new BigDecimal("0.14")));
+        order.addItem(new CartItem(101L, "event-1", "B1", 5000L, "res-1", null, null), TaxRule.flatRate(new BigDecimal("0.14")));
+        when(ordersRepository.findOrderById(1L)).thenReturn(order);
+        when(ordersRepository.applyCartChange(any(), anyList(), anyList())).thenAnswer(inv -> {
+            List<CartItem> added = inv.getArgument(1);
+            List<CartItem> persisted = new ArrayList<>();
+            for (int i = 0; i < added.size(); i++) {
+                CartItem item = added.get(i);
+                persisted.add(new CartItem(200L + i, item.eventId(), item.seatId(), item.unitPriceCents(), item.reservationId(), null, null));
+            }
+            return persisted;
+        });
+
+        CartChangeResult result = orderService.changeItems(1L, new CartChange(List.of(
+                new CartItem(null, "event-1", "A2", 5000L, "res-1", null, null),
+                new CartItem(null, "event-1", "B1", 5000L, "res-1", null, null),
+                new CartItem(null, "event-1", "A3", 5000L, "res-1", null, null),
+                new CartItem(null, "event-1", "A3", 5000L, "res-1", null, null),
+                new CartItem(null, "event-1", null, 5000L, "res-1", null, null)),
+                List.of(100L, 999L)));
+
+        assertEquals(List.of(Outcome.ADDED, Outcome.DUPLICATE_SEAT, Outcome.ADDED, Outcome.DUPLICATE_SEAT, Outcome.INVALID),
+                result.added().stream().map(CartChangeResult.ItemOutcome::outcome).toList());
+        assertEquals(List.of(200L, 201L), result.added().stream().map(CartChangeResult.ItemOutcome::itemId).filter(Objects::nonNull).toList());
+        assertEquals(List.of(Outcome.REMOVED, Outcome.NOT_FOUND), result.removed().stream().map(CartChangeResult.ItemOutcome::outcome).toList());
+        // B1 stays, A1 goes, A2 and A3 come in
+        assertEquals(List.of(101L, 200L, 201L), result.order().getItems().stream().map(CartItem::id).toList());
+        assertEquals(17100L, result.order().getTotalAmountCents());
+        verify(ordersRepository, times(1)).findOrderById(1L);
+        verify(ordersRepository).applyCartChange(any(), argThat(items -> items.size() == 2), eq(List.of(100L)));
+        verify(orderCache).evict(1L);
+    }
+
+    @Test
+    void testBulkCartChangeWithNothingValidWritesNothing() {
+        Order order = cartOrder(1L);
+        when(ordersRepository.findOrderById(1L)).thenReturn(order);
+
+        CartChangeResult result = orderService.changeItems(1L, new CartChange(
+                List.of(new CartItem(null, "event-1", "A1", -1L, null, null, null)), List.of(5L)));
+
+        assertEquals(Outcome.INVALID, result.added().get(0).outcome());
+        assertEquals(Outcome.NOT_FOUND, result.removed().get(0).outcome());
+        verify(ordersRepository, never()).applyCartChange(any(), anyList(), anyList());
+        verifyNoInteractions(orderCache);
+    }
+
+    @Test
+    void testGenerateInvoiceStoresPdfAndRequestsEmail() {
+        Order order = paidOrder(1L, "A1");
+        order.assignTicket("event-1", "A1", "ticket-A1", "qr-A1");
+        Map<String, byte[]> images = Map.of("qr-A1", new byte[]{1, 2, 3});
+        when(ordersRepository.findOrderById(1L)).thenReturn(order);
+        when(ordersRepository.findTicketQrImages(1L)).thenReturn(images);
+        when(invoiceAdapter.generateInvoice(order, images)).thenReturn(new InvoicePort.InvoiceResult("1", "http://invoices/1.pdf"));
+
+        orderService.generateInvoice(1L);
+
+        verify(emailPublisher).publishEmailRequest(any(), eq("user@example.com"), any(), any(), eq("http://invoices/1.pdf"));
+    }
+
+    @Test
+    void testGenerateInvoiceIgnoresIncompleteOrder() {
+        when(ordersRepository.findOrderById(1L)).thenReturn(paidOrder(1L, "A1"));
+
+        orderService.generateInvoice(1L);
+
+        verifyNoInteractions(invoiceAdapter, emailPublisher);
+    }
+
+    @Test
+    void testTicketBatchSkipsFailingOrderAndInvalidIds() {
+        when(ordersRepository.findOrderById(1L)).thenThrow(new RuntimeException("Order not found with id: 1"));
+        when(ordersRepository.findOrderById(2L)).thenReturn(paidOrder(2L, "B1", "B2"));
+
+        orderService.onTicketsCreated(List.of(ticket("1", "A1"), ticket("not-a-number", "X1"), ticket("2", "B1")));
+
+        verify(ordersRepository).updateItemTickets(argThat(order -> order.getId() == 2L), argThat(items -> items.size() == 1), anyMap());
+        verifyNoInteractions(invoiceRequestPublisher);
+    }
+
+    @Test
+    void testTicketBatchIgnoresAlreadyAssignedTickets() {
+        Order order = paidOrder(1L, "A1");
+        order.assignTicket("event-1", "A1", "ticket-A1", TicketQr.fromDataUrl(qrDataUrl("A1")).id());
+        when(ordersRepository.findOrderById(1L)).thenReturn(order);
+
+        orderService.onTicketsCreated(List.of(ticket("1", "A1")));
+
+        verify(ordersRepository, never()).updateItemTickets(any(), anyList(), anyMap());
+    }
+
+    @Test
+    void testTicketQrIsStoredAsBytesAndReferencedById() {
+        when(ordersRepository.findOrderById(1L)).thenReturn(paidOrder(1L, "A1", "A2"));
+        TicketCreatedEvent unreadable = new TicketCreatedEvent("ticket-A2", "1", "event-1", "A2", "not-a-data-url");
+
+        orderService.onTicketsCreated(List.of(ticket("1", "A1"), unreadable));
+
+        TicketQr qr = TicketQr.fromDataUrl(qrDataUrl("A1"));
+        ArgumentCaptor<List<CartItem>> items = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<Map<String, byte[]>> images = ArgumentCaptor.forClass(Map.class);
+        verify(ordersRepository).updateItemTickets(any(), items.capture(), images.capture());
+        assertEquals(qr.id(), items.getValue().get(0).ticketQrId());
+        assertEquals(1, items.getValue().size());
+        assertArrayEquals("png-A1".getBytes(), images.getValue().get(qr.id()));
+    }
+
+    @Test
+    void testPaymentEventIsReappliedOnFreshStateAfterAConflict() {
+        ReflectionTestUtils.setField(orderService, "conflictRetryBackoffMs", 1L);
+        when(ordersRepository.findOrderById(1L)).thenAnswer(inv -> pendingOrder(1L));
+        when(ordersRepository.save(any()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Order.class, 1L))
+                .thenAnswer(inv -> inv.getArgument(0));
+
+        orderService.onPaymentProcessed(new PaymentProcessedEvent("corr-1", 1L, PaymentStatus.SUCCESS, null));
+
+        verify(ordersRepository, times(2)).findOrderById(1L);
+        verify(ordersRepository, times(2)).save(argThat(order -> order.getStatus() == Order.Status.PAID));
+    }
+
+    @Test
+    void testTicketBatchFailsOnceConflictRetriesAreExhausted() {
+        ReflectionTestUtils.setField(orderService, "conflictRetryBackoffMs", 1L);
+        when(ordersRepository.findOrderById(1L)).thenAnswer(inv -> paidOrder(1L, "A1"));
+        when(ordersRepository.updateItemTickets(any(), anyList(), anyMap()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Order.class, 1L));
+
+        // rethrown so the whole batch is redelivered instead of the tickets being dropped
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> orderService.onTicketsCreated(List.of(ticket("1", "A1"))));
+        verify(ordersRepository, times(5)).findOrderById(1L);
+        verifyNoInteractions(invoiceRequestPublisher);
+    }
+
+    @Test
+    void testTicketBatchFailsOnTransientErrorsSoItIsRedelivered() {
+        when(ordersRepository.findOrderById(1L)).thenThrow(new CannotCreateTransactionException("Connection is not available"));
+        assertThrows(CannotCreateTransactionException.class, () -> orderService.onTicketsCreated(List.of(ticket("1", "A1"))));
+
+        when(ordersRepository.findOrderById(2L)).thenReturn(paidOrder(2L, "B1"));
+        doThrow(new AmqpConnectException(new ConnectException("broker down"))).when(invoiceRequestPublisher).requestInvoice(2L);
+        assertThrows(AmqpConnectException.class, () -> orderService.onTicketsCreated(List.of(ticket("2", "B1"))));
+    }
+
+    private static OrderSummary summary(Long orderId, OffsetDateTime createdAt) {
+        return new OrderSummary(orderId, "user-123", Order.Status.PAID, 1, 5700L, 700L, "CAD", createdAt, createdAt);
+    }
+
+    private static Order cartOrder(Long orderId) {
+        return new Order(orderId, "user-123", "user@example.com", List.of(), Order.Status.IN_CART);
+    }
+
+    private static Order pendingOrder(Long orderId) {
+        List<CartItem> items = List.of(new CartItem(orderId * 100, "event-1", "A1", 5000L, "res-1", null, null));
+        return new Order(orderId, "user-123", "user@example.com", items, Order.Status.PAYMENT_PENDING, 0L, 0L, "CAD", null, null);
+    }
+
+    private static Order paidOrder(Long orderId, String... seats) {
+        List<CartItem> items = new ArrayList<>();
+        long itemId = orderId * 100;
+        for (String seat : seats) {
+            items.add(new CartItem(itemId++, "event-1", seat, 5000L, "res-1", null, null));
+        }
+        return new Order(orderId, "user-123", "user@example.com", items, Order.Status.PAID, 0L, 0L, "CAD", null, null);
+    }
+
+    private static TicketCreatedEvent ticket(String orderId, String seat) {
+        return new TicketCreatedEvent("ticket-" + seat, orderId, "event-1", seat, qrDataUrl(seat));
+    }
+
+    private static String qrDataUrl(String seat) {
+        return "data:image/png;base64," + Base64.getEncoder().encodeToString(("png-" + seat).getBytes());
+    }
+}
@@ -0,0 +1,86 @@
+package com.ticketchief.orderservice.config;
+
+import com.ticketchief.common.jdbc.InstrumentedDataSource;
+import com.ticketchief.common.jdbc.JdbcInstrumentationAutoConfiguration;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.env.MockEnvironment;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JdbcInstrumentationTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final HikariDataSource hikari = new HikariDataSource();
+
+    {
+        hikari.setJdbcUrl("jdbc:h2:mem:datasource-config;DB_CLOSE_DELAY=-1");
+        hikari.setPoolName("orders-test");
+    }
+
+    @AfterEach
+    void tearDown() {
+        hikari.close();
+    }
+
+    @Test
+    void statementsOnTheHikariPoolAreTimedPerPool() throws SQLException {
+        DataSource dataSource = instrument(60_000);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+
+        jdbc.execute("create table seats (id bigint primary key)");
+        jdbc.batchUpdate("insert into seats values (?)", List.of(new Object[]{1L}, new Object[]{2L}));
+        assertThat(jdbc.queryForObject("select count(*) from seats", Long.class)).isEqualTo(2L);
+
+        assertThat(registry.get("jdbc.statements").tag("pool", "orders-test").timer().count()).isEqualTo(3);
+        assertThat(registry.get("jdbc.statements.slow").counter().count()).isZero();
+        // pool metadata and Boot's hikaricp metrics binder unwrap to the pool itself
+        assertThat(dataSource.unwrap(HikariDataSource.class)).isSameAs(hikari);
+        assertThat(dataSource.isWrapperFor(InstrumentedDataSource.class)).isTrue();
+    }
+
+    @Test
+    void statementsOverTheThresholdAreCountedAsSlow() {
+        JdbcTemplate jdbc = new JdbcTemplate(instrument(0));
+
+        jdbc.queryForObject("select 1", Integer.class);
+
+        assertThat(registry.get("jdbc.statements.slow").tag("pool", "orders-test").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void autoConfiguredDataSourceIsInstrumented() {
+        new ApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(DataSourceAutoConfiguration.class,
+                        JdbcInstrumentationAutoConfiguration.class))
+                .withBean(MeterRegistry.class, () -> registry)
+                .withPropertyValues("spring.datasource.url=jdbc:h2:mem:datasource-auto;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.hikari.pool-name=orders-auto")
+                .run(context -> {
+                    new JdbcTemplate(context.getBean(DataSource.class)).queryForObject("select 1", Integer.class);
+
+                    assertThat(context.getBean(DataSource.class)).isInstanceOf(InstrumentedDataSource.class);
+                    assertThat(registry.get("jdbc.statements").tag("pool", "orders-auto").timer().count()).isEqualTo(1);
+                });
+    }
+
+    private DataSource instrument(long slowThresholdMs) {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("meterRegistry", registry);
+        return (DataSource) JdbcInstrumentationAutoConfiguration.instrumentDataSource(beans.getBeanProvider(MeterRegistry.class),
+                        new MockEnvironment().withProperty("app.datasource.slow-statement-threshold-ms", String.valueOf(slowThresholdMs)))
+                .postProcessAfterInitialization(hikari, "dataSource");
+    }
+}
@@ -0,0 +1,125 @@
+package com.ticketchief.orderservice.config;
+
+import com.ticketchief.common.messaging.ListenerSettings;
+import com.ticketchief.common.messaging.ListenerTuning;
+import com.ticketchief.common.messaging.TunedListenerContainerFactory;
+import org.springframework.amqp.core.BatchMessageListener;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageListener;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerEndpoint;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Messages/second drained from a pre-filled queue by containers built with
+ * {@link TunedListenerContainerFactory}, at several concurrency/prefetch/batch settings. Each handler
+ * call parks for {@code workMs} to stand in for the database write a real listener does (a batch
+ * listener pays it once per batch). Needs a broker; run from the repository root with:
+ * <pre>
+ * mvn -pl services/common -am install -DskipTests
+ * mvn -pl services/orderservice test-compile
+ * mvn -pl services/orderservice exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *     -Dexec.args="-cp %classpath com.ticketchief.orderservice.config.ListenerThroughputHarness localhost 5672 guest guest 5000 2"
+ * </pre>
+ * Arguments: host, port, username, password, messages per run, work per handler call in ms.
+ */
+public class ListenerThroughputHarness {
+
+    private record Scenario(String name, boolean batch, ListenerSettings settings) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 5672;
+        String user = args.length > 2 ? args[2] : "guest";
+        String password = args.length > 3 ? args[3] : "guest";
+        int messages = args.length > 4 ? Integer.parseInt(args[4]) : 5000;
+        long workMs = args.length > 5 ? Long.parseLong(args[5]) : 2;
+
+        CachingConnectionFactory connectionFactory = new CachingConnectionFactory(host, port);
+        connectionFactory.setUsername(user);
+        connectionFactory.setPassword(password);
+        RabbitAdmin admin = new RabbitAdmin(connectionFactory);
+        RabbitTemplate template = new RabbitTemplate(connectionFactory);
+
+        List<Scenario> scenarios = List.of(
+                new Scenario("1 consumer, prefetch 1", false, settings(1, 1, null, false)),
+                new Scenario("1 consumer, prefetch 250", false, settings(1, 250, null, false)),
+                new Scenario("4 consumers, prefetch 50", false, settings(4, 50, null, false)),
+                new Scenario("16 consumers, prefetch 50", false, settings(16, 50, null, false)),
+                new Scenario("16 consumers, prefetch 50, virtual", false, settings(16, 50, null, true)),
+                new Scenario("1 consumer, batch 50", true, settings(1, 250, 50, false)),
+                new Scenario("4 consumers, batch 50", true, settings(4, 250, 50, false)));
+
+        System.out.printf("%d messages per run, %d ms per handler call%n", messages, workMs);
+        System.out.printf("%-38s %12s%n", "settings", "msg/s");
+        for (Scenario scenario : scenarios) {
+            double rate = run(scenario, connectionFactory, admin, template, messages, workMs);
+            System.out.printf("%-38s %12.0f%n", scenario.name(), rate);
+        }
+        connectionFactory.destroy();
+    }
+
+    private static double run(Scenario scenario, CachingConnectionFactory connectionFactory, RabbitAdmin admin,
+                              RabbitTemplate template, int messages, long workMs) throws InterruptedException {
+        String queue = admin.declareQueue(new Queue("", false, false, false));
+        byte[] body = "{\"orderId\":\"harness\",\"ticketId\":\"t\"}".getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < messages; i++) {
+            template.send("", queue, new Message(body, new MessageProperties()));
+        }
+
+        ListenerTuning tuning = new ListenerTuning();
+        tuning.getOverrides().put("harness", scenario.settings());
+        TunedListenerContainerFactory factory = new TunedListenerContainerFactory(tuning);
+        factory.setConnectionFactory(connectionFactory);
+
+        CountDownLatch done = new CountDownLatch(messages);
+        SimpleRabbitListenerEndpoint endpoint = new SimpleRabbitListenerEndpoint();
+        endpoint.setId("harness");
+        endpoint.setQueueNames(queue);
+        endpoint.setBatchListener(scenario.batch());
+        if (scenario.batch()) {
+            endpoint.setMessageListener((BatchMessageListener) batch -> {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(workMs));
+                batch.forEach(m -> done.countDown());
+            });
+        } else {
+            endpoint.setMessageListener((MessageListener) message -> {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(workMs));
+                done.countDown();
+            });
+        }
+
+        SimpleMessageListenerContainer container = factory.createListenerContainer(endpoint);
+        container.afterPropertiesSet();
+        long start = System.nanoTime();
+        container.start();
+        if (!done.await(5, TimeUnit.MINUTES)) {
+            throw new IllegalStateException(scenario.name() + ": " + done.getCount() + " messages not consumed");
+        }
+        long elapsed = System.nanoTime() - start;
+        container.stop();
+        admin.deleteQueue(queue);
+        return messages / (elapsed / 1e9);
+    }
+
+    private static ListenerSettings settings(int concurrency, int prefetch, Integer batchSize, boolean virtual) {
+        ListenerSettings settings = new ListenerSettings();
+        settings.setConcurrency(concurrency);
+        settings.setPrefetch(prefetch);
+        settings.setBatchSize(batchSize);
+        settings.setBatchReceiveTimeoutMs(batchSize == null ? null : 200L);
+        settings.setVirtualThreads(virtual);
+        return settings;
+    }
+}
@@ -0,0 +1,120 @@
+package com.ticketchief.orderservice.config;
+
+import com.ticketchief.common.messaging.ListenerTuning;
+import com.ticketchief.common.messaging.MessagingAutoConfiguration;
+import com.ticketchief.common.messaging.TunedListenerContainerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.MessageListener;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerEndpoint;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.RabbitListenerContainerFactory;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.amqp.RabbitAutoConfiguration;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ListenerTuningTest {
+
+    private final TunedListenerContainerFactory factory = new TunedListenerContainerFactory(bind(Map.of(
+            "app.rabbit.listeners.defaults.prefetch", "50",
+            "app.rabbit.listeners.overrides.ticket-created.batch-size", "50",
+            "app.rabbit.listeners.overrides.ticket-created.batch-receive-timeout-ms", "200",
+            "app.rabbit.listeners.overrides.ticket-created.prefetch", "250",
+            "app.rabbit.listeners.overrides.invoice-requested.concurrency", "2",
+            "app.rabbit.listeners.overrides.invoice-requested.max-concurrency", "4",
+            "app.rabbit.listeners.overrides.invoice-requested.prefetch", "1",
+            "app.rabbit.listeners.overrides.email-requested.concurrency", "6",
+            "app.rabbit.listeners.overrides.email-requested.max-concurrency", "3",
+            "app.rabbit.listeners.overrides.email-requested.virtual-threads", "true")));
+
+    {
+        factory.setConnectionFactory(mock(ConnectionFactory.class));
+    }
+
+    @Test
+    void perListenerSettingsOverrideDefaults() {
+        SimpleMessageListenerContainer invoices = create("invoice-requested", false);
+
+        assertThat(field(invoices, "concurrentConsumers")).isEqualTo(2);
+        assertThat(field(invoices, "maxConcurrentConsumers")).isEqualTo(4);
+        assertThat(field(invoices, "prefetchCount")).isEqualTo(1);
+        assertThat(invoices.isConsumerBatchEnabled()).isFalse();
+    }
+
+    @Test
+    void listenersWithoutOverridesGetDefaults() {
+        SimpleMessageListenerContainer other = create("payment-processed", false);
+
+        assertThat(field(other, "prefetchCount")).isEqualTo(50);
+        assertThat(field(other, "concurrentConsumers")).isEqualTo(1);
+        assertThat(field(other, "maxConcurrentConsumers")).isNull();
+    }
+
+    @Test
+    void batchSettingsOnlyApplyToBatchListeners() {
+        SimpleMessageListenerContainer batch = create("ticket-created", true);
+        SimpleMessageListenerContainer single = create("ticket-created", false);
+
+        assertThat(batch.isConsumerBatchEnabled()).isTrue();
+        assertThat(field(batch, "batchSize")).isEqualTo(50);
+        assertThat(field(batch, "batchReceiveTimeout")).isEqualTo(200L);
+        assertThat(field(batch, "prefetchCount")).isEqualTo(250);
+        assertThat(single.isConsumerBatchEnabled()).isFalse();
+    }
+
+    @Test
+    void maxConcurrencyIsRaisedToConcurrencyAndVirtualThreadsGetAnExecutor() {
+        SimpleMessageListenerContainer email = create("email-requested", false);
+
+        assertThat(field(email, "concurrentConsumers")).isEqualTo(6);
+        assertThat(field(email, "maxConcurrentConsumers")).isEqualTo(6);
+        assertThat(field(email, "taskExecutor")).isInstanceOfSatisfying(SimpleAsyncTaskExecutor.class,
+                executor -> assertThat(executor.getThreadNamePrefix()).isEqualTo("email-requested-"));
+    }
+
+    @Test
+    void autoConfiguredDefaultFactoryIsTunedFromProperties() {
+        new ApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(RabbitAutoConfiguration.class, MessagingAutoConfiguration.class))
+                .withPropertyValues("spring.rabbitmq.listener.simple.prefetch=10",
+                        "app.rabbit.listeners.overrides.invoice-requested.prefetch=1")
+                .run(context -> {
+                    // Boot's own factory backs off; Boot's listener settings still apply underneath the overrides
+                    TunedListenerContainerFactory tuned = context.getBean("rabbitListenerContainerFactory", TunedListenerContainerFactory.class);
+                    assertThat(context.getBeansOfType(RabbitListenerContainerFactory.class)).hasSize(1);
+                    assertThat(field(create(tuned, "invoice-requested", false), "prefetchCount")).isEqualTo(1);
+                    assertThat(field(create(tuned, "payment-processed", false), "prefetchCount")).isEqualTo(10);
+                });
+    }
+
+    private SimpleMessageListenerContainer create(String id, boolean batch) {
+        return create(factory, id, batch);
+    }
+
+    private static SimpleMessageListenerContainer create(TunedListenerContainerFactory factory, String id, boolean batch) {
+        SimpleRabbitListenerEndpoint endpoint = new SimpleRabbitListenerEndpoint();
+        endpoint.setId(id);
+        endpoint.setQueueNames(id + ".queue");
+        endpoint.setMessageListener((MessageListener) message -> { });
+        endpoint.setBatchListener(batch);
+        return factory.createListenerContainer(endpoint);
+    }
+
+    private static Object field(SimpleMessageListenerContainer container, String name) {
+        return ReflectionTestUtils.getField(container, name);
+    }
+
+    private static ListenerTuning bind(Map<String, String> properties) {
+        return new Binder(new MapConfigurationPropertySource(properties))
+                .bind("app.rabbit.listeners", ListenerTuning.class).get();
+    }
+}
@@ -0,0 +1,154 @@
+package com.ticketchief.orderservice.config;
+
+import com.ticketchief.common.messaging.ListenerMetrics;
+import com.ticketchief.common.messaging.ListenerTuning;
+import com.ticketchief.common.messaging.MessagingAutoConfiguration;
+import com.ticketchief.common.messaging.TunedListenerContainerFactory;
+import com.ticketchief.common.metrics.PipelineMetrics;
+import com.ticketchief.common.metrics.PipelineMetricsAutoConfiguration;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageListener;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerEndpoint;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.amqp.RabbitAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PipelineMetricsTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final AmqpAdmin amqpAdmin = mock();
+    private final PipelineMetrics pipelineMetrics = new PipelineMetrics(registry);
+    // refreshed explicitly below; the hour keeps the background refresher out of the way
+    private final ListenerMetrics listenerMetrics = new ListenerMetrics(registry, amqpAdmin, Duration.ofHours(1));
+
+    @AfterEach
+    void tearDown() {
+        listenerMetrics.close();
+    }
+
+    @Test
+    void listenerContainersReportLagFromThePublishTimestampAndQueueDepth() throws Exception {
+        when(amqpAdmin.getQueueInfo("ticket-created.queue")).thenReturn(new QueueInformation("ticket-created.queue", 42, 1));
+        SimpleMessageListenerContainer container = create("ticket-created");
+
+        receive(container, stamped(System.currentTimeMillis() - 1500));
+        receive(container, new Message(new byte[0], new MessageProperties()));
+
+        assertThat(registry.get(PipelineMetrics.LISTENER_LAG).tag("listener", "ticket-created").timer().count()).isEqualTo(1);
+        assertThat(registry.get(PipelineMetrics.LISTENER_LAG).timer().max(TimeUnit.MILLISECONDS)).isBetween(1500.0, 5000.0);
+        assertThat(registry.get(PipelineMetrics.LISTENER_LAG_LAST).gauge().value()).isBetween(1.5, 5.0);
+        listenerMetrics.refreshQueueDepths();
+        for (int scrape = 0; scrape < 5; scrape++) {
+            assertThat(registry.get(PipelineMetrics.LISTENER_QUEUE_DEPTH).tag("listener", "ticket-created").gauge().value()).isEqualTo(42.0);
+        }
+        // scrapes read the cached depth: only the refresher asks the broker (once at start, once above)
+        verify(amqpAdmin, atMost(2)).getQueueInfo("ticket-created.queue");
+    }
+
+    @Test
+    void queueDepthIsUnknownWhileTheBrokerCannotBeAsked() {
+        when(amqpAdmin.getQueueInfo("payment-processed.queue")).thenThrow(new AmqpConnectException(new ConnectException("refused")));
+        create("payment-processed");
+
+        listenerMetrics.refreshQueueDepths();
+
+        assertThat(registry.get(PipelineMetrics.LISTENER_QUEUE_DEPTH).tag("listener", "payment-processed").gauge().value()).isNaN();
+    }
+
+    @Test
+    void publishTimestampIsOnlySetWhenTheSenderHasNone() throws Exception {
+        Message fresh = ListenerMetrics.stampPublishTime().postProcessMessage(new Message(new byte[0], new MessageProperties()));
+        Message outbox = ListenerMetrics.stampPublishTime().postProcessMessage(stamped(1_000L));
+
+        assertThat(fresh.getMessageProperties().getTimestamp()).isNotNull();
+        assertThat(outbox.getMessageProperties().getTimestamp()).isEqualTo(new Date(1_000L));
+    }
+
+    @Test
+    void stagesAreTimedByOutcomeIncludingAsyncOnes() {
+        pipelineMetrics.time(PipelineMetrics.ORDER_FINALIZE, () -> "corr-1");
+        assertThatThrownBy(() -> pipelineMetrics.time(PipelineMetrics.ORDER_FINALIZE, () -> {
+            throw new IllegalStateException("not in cart");
+        })).isInstanceOf(IllegalStateException.class);
+        CompletableFuture<Void> pending = new CompletableFuture<>();
+        CompletableFuture<Void> timed = pipelineMetrics.timeAsync(PipelineMetrics.ORDER_PAYMENT_PROCESSED, () -> pending);
+
+        assertThat(stageCount(PipelineMetrics.ORDER_FINALIZE, "success")).isEqualTo(1);
+        assertThat(stageCount(PipelineMetrics.ORDER_FINALIZE, "failure")).isEqualTo(1);
+        assertThat(registry.find(PipelineMetrics.STAGE).tag("stage", PipelineMetrics.ORDER_PAYMENT_PROCESSED).timer()).isNull();
+
+        pending.complete(null);
+
+        assertThat(timed).isCompleted();
+        assertThat(stageCount(PipelineMetrics.ORDER_PAYMENT_PROCESSED, "success")).isEqualTo(1);
+    }
+
+    @Test
+    void metricsAreAutoConfiguredWhenTheServiceHasAMeterRegistry() {
+        ApplicationContextRunner runner = new ApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(RabbitAutoConfiguration.class, MessagingAutoConfiguration.class,
+                        PipelineMetricsAutoConfiguration.class));
+
+        runner.withBean(MeterRegistry.class, () -> registry).run(context -> {
+            assertThat(context).hasSingleBean(PipelineMetrics.class).hasSingleBean(ListenerMetrics.class);
+            assertThat(ReflectionTestUtils.getField(context.getBean(TunedListenerContainerFactory.class), "listenerMetrics"))
+                    .isSameAs(context.getBean(ListenerMetrics.class));
+        });
+        runner.run(context -> assertThat(context).doesNotHaveBean(PipelineMetrics.class).doesNotHaveBean(ListenerMetrics.class));
+    }
+
+    private long stageCount(String stage, String outcome) {
+        return registry.get(PipelineMetrics.STAGE).tag("stage", stage).tag("outcome", outcome).timer().count();
+    }
+
+    private SimpleMessageListenerContainer create(String id) {
+        TunedListenerContainerFactory factory = new TunedListenerContainerFactory(new ListenerTuning());
+        factory.setConnectionFactory(mock(ConnectionFactory.class));
+        factory.setListenerMetrics(listenerMetrics);
+        SimpleRabbitListenerEndpoint endpoint = new SimpleRabbitListenerEndpoint();
+        endpoint.setId(id);
+        endpoint.setQueueNames(id + ".queue");
+        endpoint.setMessageListener((MessageListener) message -> { });
+        return factory.createListenerContainer(endpoint);
+    }
+
+    // What the container does with every delivery before handing it to the listener
+    @SuppressWarnings("unchecked")
+    private static void receive(SimpleMessageListenerContainer container, Message message) throws Exception {
+        for (MessagePostProcessor processor : (Collection<MessagePostProcessor>) ReflectionTestUtils.getField(container, "afterReceivePostProcessors")) {
+            message = processor.postProcessMessage(message);
+        }
+    }
+
+    private static Message stamped(long epochMillis) {
+        MessageProperties properties = new MessageProperties();
+        properties.setTimestamp(new Date(epochMillis));
+        return new Message(new byte[0], properties);
+    }
+}
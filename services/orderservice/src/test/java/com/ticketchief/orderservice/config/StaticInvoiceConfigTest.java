@@ -0,0 +1,106 @@
+package com.ticketchief.orderservice.config;
+
+import com.ticketchief.common.metrics.PipelineMetrics;
+import com.ticketchief.orderservice.adapter.input.OrderController;
+import com.ticketchief.orderservice.adapter.input.PendingPaymentAwaiter;
+import com.ticketchief.orderservice.application.OrderService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Caching behaviour of the /files/invoices static handler.
+ */
+@WebMvcTest(OrderController.class)
+class StaticInvoiceConfigTest {
+
+    @TempDir
+    static Path storageDir;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private OrderService orderService;
+
+    @MockitoBean
+    private PendingPaymentAwaiter paymentAwaiter;
+
+    @MockitoBean
+    private PipelineMetrics pipelineMetrics;
+
+    @DynamicPropertySource
+    static void storage(DynamicPropertyRegistry registry) {
+        registry.add("app.invoice.storage-dir", () -> storageDir.toString());
+    }
+
+    @BeforeAll
+    static void writeInvoices() throws Exception {
+        Files.writeString(storageDir.resolve("7-0123456789abcdef.pdf"), "%PDF hashed");
+        Files.writeString(storageDir.resolve("7.pdf"), "%PDF latest");
+        Files.writeString(storageDir.resolve("8-fedcba9876543210.pdf"), "%PDF hashed");
+        Files.writeString(storageDir.resolve("8-fedcba9876543210.pdf.gz"), "gzipped");
+        // what renders leave in the directory while running, or after a crash
+        Files.writeString(storageDir.resolve("9-123456.pdf.tmp"), "%PDF partial");
+        Files.writeString(storageDir.resolve("9-latest-654321.tmp"), "%PDF partial");
+        Files.writeString(storageDir.resolve("8-fedcba9876543210.pdf-987.gz.tmp"), "partial");
+    }
+
+    @Test
+    void testContentAddressedInvoiceIsImmutable() throws Exception {
+        mockMvc.perform(get("/files/invoices/7-0123456789abcdef.pdf"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("%PDF hashed"))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("immutable")))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("max-age=31536000")))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0123456789abcdef\""));
+
+        mockMvc.perform(get("/files/invoices/7-0123456789abcdef.pdf").header(HttpHeaders.IF_NONE_MATCH, "\"0123456789abcdef\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void testPrecompressedVariantIsServedToGzipClients() throws Exception {
+        mockMvc.perform(get("/files/invoices/8-fedcba9876543210.pdf").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("gzipped"))
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT_ENCODING)))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"fedcba9876543210-gzip\""));
+
+        mockMvc.perform(get("/files/invoices/8-fedcba9876543210.pdf"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("%PDF hashed"))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    void testLatestInvoiceAliasIsRevalidated() throws Exception {
+        mockMvc.perform(get("/files/invoices/7.pdf"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("%PDF latest"))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"));
+    }
+
+    @Test
+    void testTempFilesOfRendersAreNotServed() throws Exception {
+        for (String name : new String[]{"9-123456.pdf.tmp", "9-latest-654321.tmp", "8-fedcba9876543210.pdf-987.gz.tmp",
+                "8-fedcba9876543210.pdf.gz"}) {
+            mockMvc.perform(get("/files/invoices/" + name)).andExpect(status().isNotFound());
+        }
+    }
+}
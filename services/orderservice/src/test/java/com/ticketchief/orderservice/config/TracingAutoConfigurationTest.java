@@ -0,0 +1,79 @@
+package com.ticketchief.orderservice.config;
+
+import com.ticketchief.common.tracing.JsonLinesSpanExporter;
+import com.ticketchief.common.tracing.MessageTracing;
+import com.ticketchief.common.tracing.TracingAutoConfiguration;
+import com.ticketchief.common.tracing.TracingDefaults;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationPredicate;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.file.Path;
+import java.util.Collection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TracingAutoConfigurationTest {
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(TracingAutoConfiguration.class));
+
+    @TempDir
+    Path traces;
+
+    @Test
+    void sharedDefaultsYieldToTheServicesOwnSettings() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("management.tracing.sampling.probability", "0.1");
+
+        new TracingDefaults().postProcessEnvironment(environment, new SpringApplication());
+
+        assertThat(environment.getProperty("management.tracing.sampling.probability")).isEqualTo("0.1");
+        assertThat(environment.getProperty("management.otlp.tracing.export.enabled")).isEqualTo("false");
+        assertThat(environment.getProperty("spring.rabbitmq.listener.simple.observation-enabled")).isEqualTo("true");
+    }
+
+    @Test
+    void spansGoToTheServicesFileOnlyWhenEnabled() {
+        runner.run(context -> {
+            assertThat(context).doesNotHaveBean(SpanExporter.class);
+            // no tracer in this context: the outbox and batch hops fall back to no-op tracing
+            assertThat(context).hasSingleBean(MessageTracing.class);
+        });
+        runner.withPropertyValues("app.tracing.file.enabled=true", "app.tracing.file.path=" + traces.resolve("orders.jsonl"))
+                .run(context -> assertThat(context.getBean(SpanExporter.class)).isInstanceOf(JsonLinesSpanExporter.class));
+    }
+
+    @Test
+    void schedulerPollsAndActuatorRequestsAreNotTraced() {
+        runner.run(context -> {
+            ServerRequestObservationContext scrape = new ServerRequestObservationContext(
+                    new MockHttpServletRequest("GET", "/actuator/prometheus"), new MockHttpServletResponse());
+            ServerRequestObservationContext api = new ServerRequestObservationContext(
+                    new MockHttpServletRequest("GET", "/api/orders/7"), new MockHttpServletResponse());
+            Collection<ObservationPredicate> predicates = context.getBeansOfType(ObservationPredicate.class).values();
+
+            assertThat(skipped(predicates, "tasks.scheduled.execution", new Observation.Context())).isTrue();
+            assertThat(skipped(predicates, "http.server.requests", scrape)).isTrue();
+            assertThat(skipped(predicates, "http.server.requests", api)).isFalse();
+        });
+    }
+
+    private static boolean skipped(Iterable<ObservationPredicate> predicates, String name, Observation.Context context) {
+        for (ObservationPredicate predicate : predicates) {
+            if (!predicate.test(name, context)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
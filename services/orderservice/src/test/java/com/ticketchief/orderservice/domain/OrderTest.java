@@ -1,6 +1,7 @@
 package com.ticketchief.orderservice.domain;
 
 import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -11,6 +12,8 @@ import static org.junit.jupiter.api.Assertions.*;
  */
 class OrderTest {
 
+    private static final TaxRule HST = TaxRule.flatRate(new BigDecimal("0.14"));
+
     @Test
     void testOrderCreation() {
         List<CartItem> items = new ArrayList<>();
@@ -29,7 +32,7 @@ class OrderTest {
         Order order = new Order(1L, "user-123", "user_email@example.com", items, Order.Status.IN_CART, 0L, 0L, "CAD", null, null);
         
         CartItem item = new CartItem(1L, "event-1", "A1", 5000L, "res-1", null, null);
-        order.addItem(item);
+        order.addItem(item, HST);
         
         assertEquals(1, order.getItems().size());
         assertEquals("A1", order.getItems().get(0).seatId());
@@ -44,17 +47,50 @@ class OrderTest {
         assertEquals(15000L, order.getTotalAmountCents());
     }
 
+    @Test
+    void testTotalsFollowItemChanges() {
+        Order order = new Order(1L, "user-123", "user_email@example.com", new ArrayList<>(), Order.Status.IN_CART);
+
+        order.addItem(new CartItem(1L, "event-1", "A1", 5000L, "res-1", null, null), HST);
+        order.addItem(new CartItem(2L, "event-1", "A2", 2599L, "res-1", null, null), HST);
+
+        assertEquals(7599L, order.getSubtotalCents());
+        // tax is taken on the subtotal, not summed per item
+        assertEquals(1063L, order.getTaxAmountCents());
+        assertEquals(8662L, order.getTotalAmountCents());
+
+        assertTrue(order.deleteItem(1L, HST));
+        assertFalse(order.deleteItem(1L, HST));
+        assertEquals(2599L, order.getSubtotalCents());
+        assertEquals(363L, order.getTaxAmountCents());
+        assertEquals(2962L, order.getTotalAmountCents());
+    }
+
+    @Test
+    void testTotalsContinueFromStoredFigures() {
+        List<CartItem> items = new ArrayList<>();
+        items.add(new CartItem(1L, "event-1", "A1", 5000L, "res-1", null, null));
+        Order order = new Order(1L, "user-123", "user_email@example.com", items, Order.Status.IN_CART, 5700L, 700L, "CAD", null, null);
+
+        order.addItem(new CartItem(2L, "event-1", "A2", 5000L, "res-1", null, null), HST);
+
+        assertEquals(11400L, order.getTotalAmountCents());
+        order.recalculateTotals(subtotal -> 0L);
+        assertEquals(10000L, order.getTotalAmountCents());
+        assertEquals(0L, order.getTaxAmountCents());
+    }
+
     @Test
     void testAssignTicketSuccess() {
         List<CartItem> items = new ArrayList<>();
         items.add(new CartItem(1L, "event-1", "A1", 5000L, "res-1", null, null));
         Order order = new Order(1L, "user-123", "user_email@example.com", items, Order.Status.IN_CART, 0L, 0L, "CAD", null, null);
         
-        boolean updated = order.assignTicket("event-1", "A1", "ticket-123", "qr-data");
+        boolean updated = order.assignTicket("event-1", "A1", "ticket-123", "qr-id");
         
         assertTrue(updated);
         assertEquals("ticket-123", order.getItems().get(0).ticketId());
-        assertEquals("qr-data", order.getItems().get(0).ticketQr());
+        assertEquals("qr-id", order.getItems().get(0).ticketQrId());
     }
 
     @Test
@@ -64,7 +100,7 @@ class OrderTest {
         Order order = new Order(1L, "user-123", "user_email@example.com", items, Order.Status.IN_CART, 0L, 0L, "CAD", null, null);
         
         // Try to assign to non-matching seat
-        boolean updated = order.assignTicket("event-1", "B2", "ticket-123", "qr-data");
+        boolean updated = order.assignTicket("event-1", "B2", "ticket-123", "qr-id");
         
         assertFalse(updated);
         assertNull(order.getItems().get(0).ticketId());
@@ -73,11 +109,11 @@ class OrderTest {
     @Test
     void testAssignTicketIdempotent() {
         List<CartItem> items = new ArrayList<>();
-        items.add(new CartItem(1L, "event-1", "A1", 5000L, "res-1", "ticket-123", "qr-data"));
+        items.add(new CartItem(1L, "event-1", "A1", 5000L, "res-1", "ticket-123", "qr-id"));
         Order order = new Order(1L, "user-123", "user_email@example.com", items, Order.Status.IN_CART, 0L, 0L, "CAD", null, null);
         
         // Try to assign same ticket again
-        boolean updated = order.assignTicket("event-1", "A1", "ticket-123", "qr-data");
+        boolean updated = order.assignTicket("event-1", "A1", "ticket-123", "qr-id");
         
         assertFalse(updated); // Already has the same values
     }
@@ -135,6 +171,6 @@ class OrderTest {
         
         CartItem item = new CartItem(1L, "event-1", "A1", 5000L, "res-1", null, null);
         
-        assertThrows(IllegalStateException.class, () -> order.addItem(item));
+        assertThrows(IllegalStateException.class, () -> order.addItem(item, HST));
     }
 }
@@ -1,15 +1,16 @@
 package com.ticketchief.payment.adapter.input;
 
+import com.ticketchief.common.metrics.PipelineMetrics;
 import com.ticketchief.payment.domain.PaymentRequest;
 import com.ticketchief.payment.domain.PaymentResult;
 import com.ticketchief.payment.domain.PaymentSession;
 import com.ticketchief.payment.adapter.output.PaymentSessionRepository;
 import com.ticketchief.payment.application.PaymentService;
-import com.ticketchief.payment.adapter.output.TransactionRepository;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/payment-sessions")
@@ -17,12 +18,12 @@ public class PaymentController {
 
     private final PaymentService paymentService;
     private final PaymentSessionRepository sessionRepo;
-    private final TransactionRepository txRepo;
+    private final PipelineMetrics pipelineMetrics;
 
-    public PaymentController(PaymentService paymentService, PaymentSessionRepository sessionRepo, TransactionRepository txRepo) {
+    public PaymentController(PaymentService paymentService, PaymentSessionRepository sessionRepo, PipelineMetrics pipelineMetrics) {
         this.paymentService = paymentService;
         this.sessionRepo = sessionRepo;
-        this.txRepo = txRepo;
+        this.pipelineMetrics = pipelineMetrics;
     }
 
     public static class AttemptRequest {
@@ -32,23 +33,25 @@ public class PaymentController {
     }
 
     @PostMapping("/{correlationId}/card-submissions")
-    public ResponseEntity<?> submitCard(@PathVariable String correlationId, @RequestBody AttemptRequest body) {
-        PaymentSession session = sessionRepo.findByCorrelationId(correlationId);
-        if (session == null) return ResponseEntity.notFound().build();
+    public CompletableFuture<ResponseEntity<?>> submitCard(@PathVariable String correlationId, @RequestBody AttemptRequest body) {
+        PaymentSession session = sessionRepo.findForAttempt(correlationId);
+        if (session == null) return CompletableFuture.completedFuture(ResponseEntity.notFound().build());
 
         PaymentRequest request = new PaymentRequest(correlationId, session.getOrderId(), session.getAmountCents(), body.cardNumber, body.cardCvv, body.cardHolder);
-        PaymentResult result = paymentService.attempt(request);
-        int attempts = txRepo.countAttempts(correlationId);
-        int remaining = Math.max(0, 3 - attempts);
-        // re-fetch session to determine whether the session reached a final status
-        PaymentSession sessionAfter = sessionRepo.findByCorrelationId(correlationId);
-        boolean isFinal = sessionAfter != null && ("FAILED".equalsIgnoreCase(sessionAfter.getStatus()) || "SUCCESS".equalsIgnoreCase(sessionAfter.getStatus()));
-        java.util.Map<String, Object> resp = new java.util.HashMap<>();
-        resp.put("status", result.getStatus().name());
-        if (result.getReason() != null) resp.put("reason", result.getReason());
-        resp.put("attemptsRemaining", remaining);
-        resp.put("isFinal", isFinal);
-        return ResponseEntity.ok(resp);
+        // the servlet thread is released here; the response is written once the gateway has answered
+        return pipelineMetrics.timeAsync(PipelineMetrics.PAYMENT_ATTEMPT, () -> paymentService.attempt(request)).thenApply(attempt -> {
+            PaymentResult result = attempt.getResult();
+            // the session state written with the attempt; re-read only when the attempt was not recorded
+            PaymentSession sessionAfter = attempt.getSession() != null ? attempt.getSession() : sessionRepo.findByCorrelationId(correlationId);
+            int remaining = sessionAfter != null ? sessionAfter.getAttemptsRemaining() : 0;
+            boolean isFinal = sessionAfter != null && sessionAfter.isFinal();
+            java.util.Map<String, Object> resp = new java.util.HashMap<>();
+            resp.put("status", result.getStatus().name());
+            if (result.getReason() != null) resp.put("reason", result.getReason());
+            resp.put("attemptsRemaining", remaining);
+            resp.put("isFinal", isFinal);
+            return ResponseEntity.ok(resp);
+        });
     }
 
     @GetMapping("/{correlationId}")
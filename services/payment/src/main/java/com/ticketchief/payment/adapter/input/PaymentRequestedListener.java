@@ -15,7 +15,7 @@ public class PaymentRequestedListener {
         this.processPayment = processPayment;
     }
 
-    @RabbitListener(queues = "${app.rabbit.requested.queue:payments.requested.queue}")
+    @RabbitListener(id = "payment-requested", queues = "${app.rabbit.requested.queue:payments.requested.queue}")
     public void onMessage(PaymentRequestedEvent requestedEvent) {
         // Create a payment session for this correlationId so frontend can submit card attempts
         PaymentRequest request = new PaymentRequest(requestedEvent.correlationId(), requestedEvent.orderId(), requestedEvent.amountCents());
@@ -1,36 +1,98 @@
 package com.ticketchief.payment.adapter.output;
 
+import com.ticketchief.payment.domain.PaymentRequest;
+import com.ticketchief.payment.domain.PaymentResult;
 import com.ticketchief.payment.domain.PaymentSession;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
+/**
+ * Payment sessions with their attempt counter. A session's order and amount never change after it is
+ * created, so an LRU cache of open sessions serves the lookup that starts each card submission. Status
+ * and attempts can be changed by any replica, so reads that report them go to the database, and the
+ * attempt itself is guarded there (only PENDING sessions are updated).
+ */
 @Repository
 public class PaymentSessionRepository {
     private final JdbcTemplate jdbc;
+    private final Map<String, PaymentSession> cache;
 
-    public PaymentSessionRepository(JdbcTemplate jdbc) {
+    public PaymentSessionRepository(JdbcTemplate jdbc,
+                                    @Value("${app.payment.session-cache.max-entries:10000}") int maxCachedSessions) {
         this.jdbc = jdbc;
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PaymentSession> eldest) {
+                return size() > maxCachedSessions;
+            }
+        });
     }
 
     public void insertSession(PaymentSession session) {
         String sql = "INSERT INTO payment_sessions(correlation_id, order_id, amount_cents, status, created_at) VALUES (?, ?, ?, ?, now())";
         jdbc.update(sql, session.getCorrelationId(), session.getOrderId(), session.getAmountCents(), session.getStatus());
+        cache.put(session.getCorrelationId(), session);
     }
 
+    /**
+     * The session as stored, for callers that report its status or attempts.
+     */
     public PaymentSession findByCorrelationId(String correlationId) {
-        String sql = "SELECT correlation_id, order_id, amount_cents, status, created_at FROM payment_sessions WHERE correlation_id = ?";
-        return jdbc.query(sql, new Object[]{correlationId}, rs -> {
-            if (!rs.next()) return null;
-            return mapRow(rs);
-        });
+        String sql = "SELECT correlation_id, order_id, amount_cents, status, created_at, attempts FROM payment_sessions WHERE correlation_id = ?";
+        return jdbc.query(sql, rs -> rs.next() ? mapRow(rs) : null, correlationId);
+    }
+
+    /**
+     * The session for starting an attempt: only its order and amount are reliable, its status and
+     * attempts may be stale when another replica recorded an attempt since it was cached.
+     */
+    public PaymentSession findForAttempt(String correlationId) {
+        PaymentSession cached = cache.get(correlationId);
+        if (cached != null) return cached;
+
+        PaymentSession session = findByCorrelationId(correlationId);
+        if (session != null && !session.isFinal()) cache.put(correlationId, session);
+        return session;
     }
 
-    public void updateStatus(String correlationId, String status) {
-        String sql = "UPDATE payment_sessions SET status = ? WHERE correlation_id = ?";
-        jdbc.update(sql, status, correlationId);
+    /**
+     * Records one card attempt, bumps the attempt counter and finalizes the session in a single statement
+     * (one round trip, one transaction). The session becomes SUCCESS on a successful attempt and FAILED when
+     * {@code finalAttempt} is set or the attempts are exhausted. The session update comes first and the
+     * attempt row is inserted from what it returns: the update only matches a PENDING session (re-checked
+     * after waiting for a concurrent writer's row lock), so an attempt against a closed session writes
+     * nothing and the returned state is final exactly for the attempt that closed the session. Returns null
+     * when the session does not exist or is already final.
+     */
+    public PaymentSession recordAttempt(PaymentRequest request, PaymentResult result, boolean finalAttempt) {
+        String sql = """
+                WITH session AS (
+                    UPDATE payment_sessions SET attempts = attempts + 1,
+                        status = CASE WHEN ?::varchar = 'SUCCESS' THEN 'SUCCESS'
+                                      WHEN ?::boolean OR attempts + 1 >= ? THEN 'FAILED'
+                                      ELSE status END
+                    WHERE correlation_id = ? AND status = 'PENDING'
+                    RETURNING correlation_id, order_id, amount_cents, status, created_at, attempts
+                ), attempt AS (
+                    INSERT INTO transactions(correlation_id, order_id, amount_cents, status, gateway_response, created_at)
+                    SELECT correlation_id, ?::bigint, ?::bigint, ?::varchar, ?::text, now() FROM session
+                )
+                SELECT correlation_id, order_id, amount_cents, status, created_at, attempts FROM session
+                """;
+        String correlationId = request.getCorrelationId();
+        String status = result.getStatus().name();
+        PaymentSession session = jdbc.query(sql, rs -> rs.next() ? mapRow(rs) : null,
+                status, finalAttempt, PaymentSession.MAX_ATTEMPTS, correlationId,
+                request.getOrderId(), request.getAmountCents(), status, result.getReason());
+        if (session != null && session.isFinal()) cache.remove(correlationId);
+        return session;
     }
 
     private PaymentSession mapRow(ResultSet rs) throws SQLException {
@@ -39,7 +101,8 @@ public class PaymentSessionRepository {
                 rs.getObject("order_id") == null ? null : rs.getLong("order_id"),
                 rs.getLong("amount_cents"),
                 rs.getString("status"),
-                rs.getTimestamp("created_at") != null ? rs.getTimestamp("created_at").toInstant() : null
+                rs.getTimestamp("created_at") != null ? rs.getTimestamp("created_at").toInstant() : null,
+                rs.getInt("attempts")
         );
     }
 }
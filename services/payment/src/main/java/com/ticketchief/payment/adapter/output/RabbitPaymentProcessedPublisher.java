@@ -1,24 +1,26 @@
 package com.ticketchief.payment.adapter.output;
 
 import com.ticketchief.common.events.PaymentProcessedEvent;
+import com.ticketchief.payment.adapter.output.outbox.PaymentOutbox;
 import com.ticketchief.payment.domain.PaymentRequest;
 import com.ticketchief.payment.domain.PaymentResult;
 import com.ticketchief.payment.port.output.PublishPaymentProcessed;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+// Written to the outbox in the caller's transaction; the relay publishes it once that commits and retries
+// until the broker confirms, so a final result is never lost between the session update and the send
 @Component
 public class RabbitPaymentProcessedPublisher implements PublishPaymentProcessed {
 
-    private final RabbitTemplate rabbitTemplate;
+    private final PaymentOutbox outbox;
     private final String exchange;
     private final String routingKey;
 
-    public RabbitPaymentProcessedPublisher(RabbitTemplate rabbitTemplate,
+    public RabbitPaymentProcessedPublisher(PaymentOutbox outbox,
                                            @Value("${app.rabbit.processed.exchange:payments.exchange}") String exchange,
                                            @Value("${app.rabbit.processed.routing-key:payment.processed}") String routingKey) {
-        this.rabbitTemplate = rabbitTemplate;
+        this.outbox = outbox;
         this.exchange = exchange;
         this.routingKey = routingKey;
     }
@@ -31,7 +33,7 @@ public class RabbitPaymentProcessedPublisher implements PublishPaymentProcessed
                 result.getStatus(),
                 result.getReason()
         );
-        rabbitTemplate.convertAndSend(exchange, routingKey, dto);
+        outbox.enqueue(exchange, routingKey, dto);
     }
 }
 
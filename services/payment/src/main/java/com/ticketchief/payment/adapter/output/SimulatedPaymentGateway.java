@@ -0,0 +1,52 @@
+package com.ticketchief.payment.adapter.output;
+
+import com.ticketchief.common.events.PaymentProcessedEvent.PaymentStatus;
+import com.ticketchief.payment.domain.PaymentRequest;
+import com.ticketchief.payment.domain.PaymentResult;
+import com.ticketchief.payment.port.output.PaymentGateway;
+import io.micrometer.context.ContextSnapshotFactory;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stand-in for a card gateway: answers after a fixed latency with a configurable success rate.
+ * The latency is a scheduled completion rather than a sleep, and the answer (plus whatever the
+ * caller chains onto it) runs on a virtual thread, so no platform thread waits for the gateway. That
+ * thread carries the caller's context, so recording and publishing the result stay in the request's trace.
+ */
+@Component
+public class SimulatedPaymentGateway implements PaymentGateway {
+
+    private final double successRate;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Executor delayed;
+    private final ContextSnapshotFactory contextSnapshots = ContextSnapshotFactory.builder().build();
+
+    public SimulatedPaymentGateway(@Value("${app.payment.simulator.success-rate:0.95}") double successRate,
+                                   @Value("${app.payment.simulator.delay-ms:500}") long simulatedDelayMs) {
+        this.successRate = successRate;
+        this.delayed = simulatedDelayMs > 0
+                ? CompletableFuture.delayedExecutor(simulatedDelayMs, TimeUnit.MILLISECONDS, executor)
+                : executor;
+    }
+
+    @Override
+    public CompletableFuture<PaymentResult> authorize(PaymentRequest request) {
+        return CompletableFuture.supplyAsync(() -> ThreadLocalRandom.current().nextDouble() < successRate
+                ? new PaymentResult(PaymentStatus.SUCCESS, null)
+                : new PaymentResult(PaymentStatus.FAILED, "simulated-decline"), contextSnapshots.captureAll().wrapExecutor(delayed));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,128 @@
+package com.ticketchief.payment.adapter.output.outbox;
+
+import com.ticketchief.common.messaging.ConfirmedPublisher;
+import com.ticketchief.common.tracing.MessageTracing;
+import io.micrometer.tracing.Span;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.AbstractJavaTypeMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains the payment outbox to RabbitMQ, like the order service's relay: each batch is locked (rows held
+ * by another replica are skipped), sent through the {@link ConfirmedPublisher} without waiting per message,
+ * confirmed by the broker as a whole and only then deleted, all in one database transaction. A nack or a
+ * missing confirm rolls back and the batch is retried on the next run (at-least-once; every message carries
+ * its outbox id as message id).
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private record OutboxEvent(long id, String exchange, String routingKey, String typeId, String payload,
+                               String traceparent, Instant createdAt) {
+    }
+
+    private final JdbcTemplate jdbc;
+    private final ConfirmedPublisher publisher;
+    private final TransactionTemplate transactionTemplate;
+    private final MessageTracing tracing;
+    private final int batchSize;
+    private final long confirmTimeoutMs;
+
+    public OutboxRelay(JdbcTemplate jdbc,
+                       ConfirmedPublisher publisher,
+                       TransactionTemplate transactionTemplate,
+                       MessageTracing tracing,
+                       @Value("${app.outbox.relay.batch-size:100}") int batchSize,
+                       @Value("${app.outbox.relay.confirm-timeout-ms:5000}") long confirmTimeoutMs) {
+        this.jdbc = jdbc;
+        this.publisher = publisher;
+        this.transactionTemplate = transactionTemplate;
+        this.tracing = tracing;
+        this.batchSize = batchSize;
+        this.confirmTimeoutMs = confirmTimeoutMs;
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.relay.poll-interval-ms:100}")
+    public void drain() {
+        try {
+            // keep going while batches come back full, so a backlog is not throttled by the poll interval
+            while (relayBatch() == batchSize) {
+                log.debug("Outbox batch of {} relayed, continuing", batchSize);
+            }
+        } catch (Exception e) {
+            log.warn("Outbox relay failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Publishes and removes the next batch; returns the number of messages relayed.
+     */
+    public int relayBatch() {
+        Integer relayed = transactionTemplate.execute(status -> {
+            List<OutboxEvent> batch = jdbc.query("""
+                    SELECT id, exchange, routing_key, type_id, payload, traceparent, created_at
+                    FROM payment_outbox ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED""", OutboxRelay::mapRow, batchSize);
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            List<ConfirmedPublisher.Outgoing> messages = new ArrayList<>(batch.size());
+            List<Span> spans = new ArrayList<>(batch.size());
+            for (OutboxEvent event : batch) {
+                Message message = toMessage(event);
+                Span span = tracing.startProducer("publish " + event.routingKey(), event.traceparent(), event.createdAt());
+                tracing.inject(span, message.getMessageProperties().getHeaders());
+                spans.add(span);
+                messages.add(new ConfirmedPublisher.Outgoing(event.exchange(), event.routingKey(), message));
+            }
+            try {
+                // throws on a nack or timeout, which rolls back and leaves the batch for the next run
+                publisher.publishAll(messages).orTimeout(confirmTimeoutMs, TimeUnit.MILLISECONDS).join();
+            } catch (RuntimeException e) {
+                spans.forEach(span -> span.error(e).end());
+                throw e;
+            }
+            spans.forEach(Span::end);
+            jdbc.batchUpdate("DELETE FROM payment_outbox WHERE id = ?", batch.stream().map(event -> new Object[]{event.id()}).toList());
+            return batch.size();
+        });
+        return relayed == null ? 0 : relayed;
+    }
+
+    private static OutboxEvent mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return new OutboxEvent(rs.getLong("id"), rs.getString("exchange"), rs.getString("routing_key"), rs.getString("type_id"),
+                rs.getString("payload"), rs.getString("traceparent"), rs.getTimestamp("created_at").toInstant());
+    }
+
+    private static Message toMessage(OutboxEvent event) {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        properties.setContentEncoding(StandardCharsets.UTF_8.name());
+        properties.setDeliveryMode(MessageDeliveryMode.PERSISTENT);
+        properties.setMessageId("payment-outbox-" + event.id());
+        // listener lag then includes the time the event waited in the outbox
+        properties.setTimestamp(Date.from(event.createdAt()));
+        if (event.typeId() != null) {
+            properties.setHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME, event.typeId());
+        }
+        return new Message(event.payload().getBytes(StandardCharsets.UTF_8), properties);
+    }
+}
@@ -0,0 +1,40 @@
+package com.ticketchief.payment.adapter.output.outbox;
+
+import com.ticketchief.common.tracing.MessageTracing;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.AbstractJavaTypeMapper;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Records outgoing events in the payment_outbox table instead of sending them to the broker. The row joins
+ * the caller's transaction, so a payment result is published exactly when the session update it describes
+ * was committed; {@link OutboxRelay} sends it afterwards and retries until the broker confirms it.
+ */
+@Component
+public class PaymentOutbox {
+
+    private final JdbcTemplate jdbc;
+    private final Jackson2JsonMessageConverter converter;
+    private final MessageTracing tracing;
+
+    public PaymentOutbox(JdbcTemplate jdbc, Jackson2JsonMessageConverter converter, MessageTracing tracing) {
+        this.jdbc = jdbc;
+        this.converter = converter;
+        this.tracing = tracing;
+    }
+
+    @Transactional
+    public void enqueue(String exchange, String routingKey, Object event) {
+        // convert now, with the same converter the RabbitTemplate uses, so the relay only copies bytes
+        Message message = converter.toMessage(event, new MessageProperties());
+        String typeId = message.getMessageProperties().getHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME);
+        jdbc.update("INSERT INTO payment_outbox(exchange, routing_key, type_id, payload, traceparent) VALUES (?, ?, ?, ?, ?)",
+                exchange, routingKey, typeId, new String(message.getBody(), StandardCharsets.UTF_8), tracing.currentTraceparent());
+    }
+}
@@ -2,40 +2,38 @@ package com.ticketchief.payment.application;
 
 import com.ticketchief.common.events.PaymentProcessedEvent.PaymentStatus;
 
+import com.ticketchief.payment.domain.PaymentAttempt;
 import com.ticketchief.payment.domain.PaymentRequest;
 import com.ticketchief.payment.domain.PaymentResult;
 import com.ticketchief.payment.domain.PaymentSession;
 import com.ticketchief.payment.adapter.output.PaymentSessionRepository;
-import com.ticketchief.payment.adapter.output.TransactionRepository;
 import com.ticketchief.payment.port.input.ProcessPayment;
+import com.ticketchief.payment.port.output.PaymentGateway;
 import com.ticketchief.payment.port.output.PublishPaymentProcessed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import java.util.Random;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class PaymentService implements ProcessPayment {
 
     private final Logger log = LoggerFactory.getLogger(PaymentService.class);
     private final PublishPaymentProcessed publisher;
-    private final TransactionRepository txRepo;
     private final PaymentSessionRepository sessionRepo;
-    private final Random random = new Random();
-    private final double successRate;
-    private final long simulatedDelayMs;
+    private final PaymentGateway gateway;
+    private final TransactionOperations transactions;
 
     public PaymentService(PublishPaymentProcessed publisher,
-                          TransactionRepository txRepo,
                           PaymentSessionRepository sessionRepo,
-                          @Value("${app.payment.simulator.success-rate:0.95}") double successRate,
-                          @Value("${app.payment.simulator.delay-ms:500}") long simulatedDelayMs) {
+                          PaymentGateway gateway,
+                          TransactionOperations transactions) {
         this.publisher = publisher;
-        this.txRepo = txRepo;
         this.sessionRepo = sessionRepo;
-        this.successRate = successRate;
-        this.simulatedDelayMs = simulatedDelayMs;
+        this.gateway = gateway;
+        this.transactions = transactions;
     }
 
     @Override
@@ -51,55 +49,43 @@ public class PaymentService implements ProcessPayment {
 
     /**
      * Perform a single payment attempt using card credentials provided in the request.
-     * Returns the PaymentResult for this single attempt and publishes a PaymentProcessedEvent
-     * when the payment is finally succeeded or exhausted (3 attempts).
+     * Completes with the PaymentResult for this single attempt together with the session state recorded
+     * for it, and publishes a PaymentProcessedEvent when the payment is finally succeeded or exhausted
+     * (3 attempts). The caller's thread only starts the attempt; recording the gateway's answer happens
+     * on the thread that completes it. If the attempt cannot be recorded the future fails, so the caller
+     * never reports an attempt whose result was not stored.
      */
-    public PaymentResult attempt(PaymentRequest request) {
+    public CompletableFuture<PaymentAttempt> attempt(PaymentRequest request) {
         log.info("Attempting payment: orderId={}, correlationId={}", request.getOrderId(), request.getCorrelationId());
 
         final String cardNumber = request.getCardNumber();
         if (cardNumber != null && cardNumber.equals("666")) {
             log.info("Card declined by rule for orderId={} (card is 666)", request.getOrderId());
-            PaymentResult result = new PaymentResult(PaymentStatus.FAILED, "declined-by-rule");
-            try {
-                txRepo.insertTransaction(request.getCorrelationId(), request.getOrderId(), null, request.getAmountCents(), result.getStatus().name(), "declined-by-rule");
-            } catch (Exception e) {
-                log.warn("Failed to persist transaction: {}", e.getMessage());
-            }
             // Immediately mark session as FAILED and publish final event
-            try {
-                sessionRepo.updateStatus(request.getCorrelationId(), "FAILED");
-            } catch (Exception e) {
-                log.warn("Failed to update session status: {}", e.getMessage());
-            }
-            publisher.publishProcessed(request, result);
-            return result;
+            return CompletableFuture.completedFuture(record(request, new PaymentResult(PaymentStatus.FAILED, "declined-by-rule"), true));
         }
 
-        try { Thread.sleep(simulatedDelayMs); } catch (InterruptedException ignored) {}
-
-        boolean success = random.nextDouble() < successRate;
-        PaymentResult result = success
-                ? new PaymentResult(PaymentStatus.SUCCESS, null)
-                : new PaymentResult(PaymentStatus.FAILED, "simulated-decline");
+        return gateway.authorize(request).thenApply(result -> record(request, result, false));
+    }
 
-        try {
-            txRepo.insertTransaction(request.getCorrelationId(), request.getOrderId(), null, request.getAmountCents(), result.getStatus().name(), result.getReason());
-        } catch (Exception e) {
-            log.warn("Failed to persist transaction attempt: {}", e.getMessage());
-        }
+    private PaymentAttempt record(PaymentRequest request, PaymentResult result, boolean finalAttempt) {
+        // attempt row, attempt counter and final status are written in one statement; the final result joins
+        // the same transaction through the outbox, so it is stored exactly when the session is closed
+        PaymentSession session = transactions.execute(status -> {
+            PaymentSession recorded = sessionRepo.recordAttempt(request, result, finalAttempt);
+            // only the attempt that moved the session out of PENDING sees it final here, so this publishes once
+            if (recorded != null && recorded.isFinal()) {
+                publisher.publishProcessed(request, result);
+            }
+            return recorded;
+        });
 
-        int attempts = txRepo.countAttempts(request.getCorrelationId());
-        if (result.getStatus() == PaymentStatus.SUCCESS) {
-            sessionRepo.updateStatus(request.getCorrelationId(), "SUCCESS");
-            publisher.publishProcessed(request, result);
-        } else if (attempts >= 3) {
-            sessionRepo.updateStatus(request.getCorrelationId(), "FAILED");
-            publisher.publishProcessed(request, result);
+        if (session == null) {
+            log.warn("Payment attempt not recorded for orderId={}: session missing or already final", request.getOrderId());
+            return new PaymentAttempt(result, null);
         }
 
-        log.info("Payment attempt result for orderId={} -> {} (attempt #{})", request.getOrderId(), result.getStatus(), attempts);
-        return result;
+        log.info("Payment attempt result for orderId={} -> {} (attempt #{})", request.getOrderId(), result.getStatus(), session.getAttempts());
+        return new PaymentAttempt(result, session);
     }
 }
-
@@ -1,5 +1,8 @@
 package com.ticketchief.payment.config;
 
+import com.ticketchief.common.messaging.ConfirmedPublisher;
+import com.ticketchief.common.messaging.ListenerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.amqp.core.*;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
@@ -20,6 +23,12 @@ public class RabbitConfig {
     @Value("${app.rabbit.requested.routing-key:payment.requested}")
     private String requestRoutingKey;
 
+    @Value("${app.rabbit.publisher.max-outstanding:1000}")
+    private int publisherMaxOutstanding;
+
+    @Value("${app.rabbit.publisher.acquire-timeout-ms:5000}")
+    private long publisherAcquireTimeoutMs;
+
     @Bean
     public TopicExchange paymentsExchange() {
         return ExchangeBuilder.topicExchange(exchangeName).durable(true).build();
@@ -44,8 +53,25 @@ public class RabbitConfig {
     public RabbitTemplate rabbitTemplate(ConnectionFactory cf, Jackson2JsonMessageConverter converter) {
         RabbitTemplate rt = new RabbitTemplate(cf);
         rt.setMessageConverter(converter);
+        // publish time for the consumers' rabbit.listener.lag
+        rt.setBeforePublishPostProcessors(ListenerMetrics.stampPublishTime());
         rt.setMandatory(true); // helpful for returns if unroutable
+        // traceparent header from the current span
+        rt.setObservationEnabled(true);
         return rt;
     }
-}
 
+    // Sends the outbox relay's batches with correlated confirms (spring.rabbitmq.publisher-confirm-type=correlated).
+    // Its own template without observation: the relay sets the traceparent captured when the event was
+    // written, which an observed template would overwrite with the relay thread's context
+    @Bean
+    public ConfirmedPublisher confirmedPublisher(ConnectionFactory cf, Jackson2JsonMessageConverter converter,
+                                                 MeterRegistry meterRegistry) {
+        RabbitTemplate outboxTemplate = new RabbitTemplate(cf);
+        outboxTemplate.setMessageConverter(converter);
+        outboxTemplate.setBeforePublishPostProcessors(ListenerMetrics.stampPublishTime());
+        outboxTemplate.setMandatory(true);
+        return new ConfirmedPublisher(outboxTemplate, meterRegistry, "payment-outbox",
+                publisherMaxOutstanding, publisherAcquireTimeoutMs);
+    }
+}
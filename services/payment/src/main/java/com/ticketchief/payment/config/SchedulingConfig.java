@@ -0,0 +1,10 @@
+package com.ticketchief.payment.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Runs the @Scheduled outbox relay; kept out of the application class so test slices do not start it
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,17 @@
+package com.ticketchief.payment.domain;
+
+/**
+ * Outcome of one card submission: the gateway's answer and the session state written with it
+ * (null when the attempt could not be recorded, e.g. the session was already final).
+ */
+public class PaymentAttempt {
+    private final PaymentResult result;
+    private final PaymentSession session;
+
+    public PaymentAttempt(PaymentResult result, PaymentSession session) {
+        this.result = result;
+        this.session = session;
+    }
+    public PaymentResult getResult() { return result; }
+    public PaymentSession getSession() { return session; }
+}
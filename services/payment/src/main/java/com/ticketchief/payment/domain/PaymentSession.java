@@ -3,18 +3,26 @@ package com.ticketchief.payment.domain;
 import java.time.Instant;
 
 public class PaymentSession {
+    public static final int MAX_ATTEMPTS = 3;
+
     private final String correlationId;
     private final Long orderId;
     private final long amountCents;
     private final String status;
     private final Instant createdAt;
+    private final int attempts;
 
     public PaymentSession(String correlationId, Long orderId, long amountCents, String status, Instant createdAt) {
+        this(correlationId, orderId, amountCents, status, createdAt, 0);
+    }
+
+    public PaymentSession(String correlationId, Long orderId, long amountCents, String status, Instant createdAt, int attempts) {
         this.correlationId = correlationId;
         this.orderId = orderId;
         this.amountCents = amountCents;
         this.status = status;
         this.createdAt = createdAt;
+        this.attempts = attempts;
     }
 
     public String getCorrelationId() { return correlationId; }
@@ -22,4 +30,7 @@ public class PaymentSession {
     public long getAmountCents() { return amountCents; }
     public String getStatus() { return status; }
     public Instant getCreatedAt() { return createdAt; }
+    public int getAttempts() { return attempts; }
+    public int getAttemptsRemaining() { return Math.max(0, MAX_ATTEMPTS - attempts); }
+    public boolean isFinal() { return "FAILED".equalsIgnoreCase(status) || "SUCCESS".equalsIgnoreCase(status); }
 }
@@ -0,0 +1,14 @@
+package com.ticketchief.payment.port.output;
+
+import com.ticketchief.payment.domain.PaymentRequest;
+import com.ticketchief.payment.domain.PaymentResult;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Authorizes a single card attempt. Implementations must not block the calling thread:
+ * the returned future completes once the gateway has answered.
+ */
+public interface PaymentGateway {
+    CompletableFuture<PaymentResult> authorize(PaymentRequest request);
+}
@@ -3,13 +3,19 @@ package com.ticketchief.payment.domain;
 import com.ticketchief.common.events.PaymentProcessedEvent.PaymentStatus;
 import com.ticketchief.payment.application.PaymentService;
 import com.ticketchief.payment.adapter.output.PaymentSessionRepository;
-import com.ticketchief.payment.adapter.output.TransactionRepository;
+import com.ticketchief.payment.adapter.output.SimulatedPaymentGateway;
 import com.ticketchief.payment.port.output.PublishPaymentProcessed;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -25,9 +31,6 @@ class PaymentServiceTest {
     @Mock
     private PaymentSessionRepository sessionRepository;
 
-    @Mock
-    private TransactionRepository transactionRepository;
-
     @Mock
     private PublishPaymentProcessed publisher;
 
@@ -36,7 +39,7 @@ class PaymentServiceTest {
     @BeforeEach
     void setUp() {
         // 100% success rate for deterministic testing (except 666 card)
-        paymentService = new PaymentService(publisher, transactionRepository, sessionRepository, 1.0, 0);
+        paymentService = new PaymentService(publisher, sessionRepository, new SimulatedPaymentGateway(1.0, 0), TransactionOperations.withoutTransaction());
     }
 
     @Test
@@ -67,7 +70,10 @@ class PaymentServiceTest {
             "Fraud Test"
         );
 
-        PaymentResult result = paymentService.attempt(request);
+        when(sessionRepository.recordAttempt(eq(request), any(PaymentResult.class), eq(true)))
+                .thenReturn(new PaymentSession("corr-666", 666L, 5000L, "FAILED", null, 1));
+
+        PaymentResult result = paymentService.attempt(request).join().getResult();
 
         // Card 666 should always fail
         assertEquals(PaymentStatus.FAILED, result.getStatus());
@@ -101,8 +107,6 @@ class PaymentServiceTest {
 
     @Test
     void testSuccessfulPayment() {
-        when(transactionRepository.countAttempts("corr-success")).thenReturn(1);
-
         PaymentRequest request = new PaymentRequest(
             "corr-success",
             789L,
@@ -112,13 +116,69 @@ class PaymentServiceTest {
             "John Doe"
         );
 
-        PaymentResult result = paymentService.attempt(request);
+        when(sessionRepository.recordAttempt(eq(request), any(PaymentResult.class), eq(false)))
+                .thenReturn(new PaymentSession("corr-success", 789L, 5000L, "SUCCESS", null, 1));
+
+        PaymentAttempt attempt = paymentService.attempt(request).join();
 
         // With 100% success rate, should succeed
-        assertEquals(PaymentStatus.SUCCESS, result.getStatus());
-        
-        // Verify session status was updated
-        verify(sessionRepository).updateStatus("corr-success", "SUCCESS");
+        assertEquals(PaymentStatus.SUCCESS, attempt.getResult().getStatus());
+
+        // The session state written with the attempt is handed back to the caller
+        assertTrue(attempt.getSession().isFinal());
+        assertEquals(2, attempt.getSession().getAttemptsRemaining());
+        verify(publisher).publishProcessed(eq(request), any(PaymentResult.class));
+    }
+
+    @Test
+    void testSlowGatewayDoesNotBlockCaller() throws Exception {
+        PaymentService slowService = new PaymentService(publisher, sessionRepository, new SimulatedPaymentGateway(1.0, 300), TransactionOperations.withoutTransaction());
+
+        PaymentRequest request = new PaymentRequest("corr-slow", 321L, 5000L, "4242424242424242", "123", "John Doe");
+        when(sessionRepository.recordAttempt(eq(request), any(PaymentResult.class), eq(false)))
+                .thenReturn(new PaymentSession("corr-slow", 321L, 5000L, "SUCCESS", null, 1));
+
+        long start = System.nanoTime();
+        CompletableFuture<PaymentAttempt> pending = slowService.attempt(request);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // the caller gets the future back immediately; nothing is recorded until the gateway answers
+        assertTrue(elapsedMs < 150, "attempt() blocked for " + elapsedMs + " ms");
+        assertFalse(pending.isDone());
+        verify(sessionRepository, never()).recordAttempt(any(), any(), anyBoolean());
+
+        assertEquals(PaymentStatus.SUCCESS, pending.get(5, TimeUnit.SECONDS).getResult().getStatus());
+        verify(publisher).publishProcessed(eq(request), any(PaymentResult.class));
+    }
+
+    @Test
+    void testThirdFailedAttemptPublishesOnce() {
+        PaymentService decliningService = new PaymentService(publisher, sessionRepository, new SimulatedPaymentGateway(0.0, 0), TransactionOperations.withoutTransaction());
+        PaymentRequest request = new PaymentRequest("corr-third", 555L, 5000L, "4242424242424242", "123", "John Doe");
+        // the write that exhausts the attempts returns the session FAILED; a late attempt finds it closed
+        when(sessionRepository.recordAttempt(eq(request), any(PaymentResult.class), eq(false)))
+                .thenReturn(new PaymentSession("corr-third", 555L, 5000L, "FAILED", null, 3))
+                .thenReturn(null);
+
+        PaymentAttempt third = decliningService.attempt(request).join();
+        PaymentAttempt late = decliningService.attempt(request).join();
+
+        assertEquals(PaymentStatus.FAILED, third.getResult().getStatus());
+        assertEquals(0, third.getSession().getAttemptsRemaining());
+        assertNull(late.getSession());
+        verify(publisher, times(1)).publishProcessed(eq(request), any(PaymentResult.class));
+    }
+
+    @Test
+    void testAttemptFailsWhenTheResultCannotBeStored() {
+        PaymentRequest request = new PaymentRequest("corr-down", 777L, 5000L, "4242424242424242", "123", "John Doe");
+        when(sessionRepository.recordAttempt(eq(request), any(PaymentResult.class), eq(false)))
+                .thenReturn(new PaymentSession("corr-down", 777L, 5000L, "SUCCESS", null, 1));
+        doThrow(new DataAccessResourceFailureException("outbox insert failed")).when(publisher).publishProcessed(eq(request), any());
+
+        // not reported as completed: the session update rolls back with the outbox row and the caller sees the error
+        CompletionException failure = assertThrows(CompletionException.class, () -> paymentService.attempt(request).join());
+        assertInstanceOf(DataAccessResourceFailureException.class, failure.getCause());
     }
 
     @Test